@@ -0,0 +1,121 @@
+package sebfisch.concurrent;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reports the bytes allocated per submitted task, comparing the futures
+ * returned by the executors with recycled futures from a {@link FuturePool}.
+ * Allocations are counted for all threads, including the workers, and
+ * reported as the {@code bytesPerSubmit} counter. Run it with {@code -t 1},
+ * because with more producer threads the allocations of concurrent batches are
+ * counted more than once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(1)
+public class AllocationBenchmark {
+    static final int BATCH_SIZE = 100;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @State(Scope.Benchmark)
+    public static class ExecutorState {
+        @Param
+        ExecutorKind kind;
+
+        BenchmarkedExecutor executor;
+        FuturePool pool;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            executor = kind.create();
+            pool = new FuturePool(executor);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws InterruptedException {
+            executor.shutdown();
+            executor.awaitTermination();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ProducerState {
+        final Callable<Integer> task = () -> 1;
+        final Future<?>[] futures = new Future<?>[BATCH_SIZE];
+        final PooledFuture<?>[] pooledFutures = new PooledFuture<?>[BATCH_SIZE];
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class AllocationCounters {
+        public long allocatedBytes;
+        public long submittedTasks;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            allocatedBytes = 0;
+            submittedTasks = 0;
+        }
+
+        public double bytesPerSubmit() {
+            return submittedTasks == 0 ? 0 : (double) allocatedBytes / submittedTasks;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void submit(ExecutorState state, ProducerState producer, AllocationCounters counters,
+            Blackhole blackhole) throws InterruptedException, ExecutionException {
+        final long allocatedBefore = THREADS.getTotalThreadAllocatedBytes();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            producer.futures[i] = state.executor.submit(producer.task);
+        }
+        for (Future<?> future : producer.futures) {
+            blackhole.consume(future.get());
+        }
+        counters.allocatedBytes += THREADS.getTotalThreadAllocatedBytes() - allocatedBefore;
+        counters.submittedTasks += BATCH_SIZE;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void pooledSubmit(ExecutorState state, ProducerState producer, AllocationCounters counters,
+            Blackhole blackhole) throws InterruptedException, ExecutionException {
+        final long allocatedBefore = THREADS.getTotalThreadAllocatedBytes();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            producer.pooledFutures[i] = state.pool.submit(producer.task);
+        }
+        for (PooledFuture<?> future : producer.pooledFutures) {
+            blackhole.consume(future.take());
+        }
+        counters.allocatedBytes += THREADS.getTotalThreadAllocatedBytes() - allocatedBefore;
+        counters.submittedTasks += BATCH_SIZE;
+    }
+}
@@ -0,0 +1,43 @@
+package sebfisch.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the selected benchmarks once for every producer thread count from one
+ * up to the number of available processors, doubling in between. Accepts the
+ * usual JMH command line options, except that an explicit {@code -t} replaces
+ * the sweep by a single run.
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions options = new CommandLineOptions(args);
+        for (int threads : producerThreadCounts(options)) {
+            new Runner(new OptionsBuilder()
+                    .parent(options)
+                    .threads(threads)
+                    .build())
+                    .run();
+        }
+    }
+
+    private static List<Integer> producerThreadCounts(CommandLineOptions options) {
+        List<Integer> counts = new ArrayList<>();
+        if (options.getThreads().hasValue()) {
+            counts.add(options.getThreads().get());
+            return counts;
+        }
+        int max = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads < max; threads *= 2) {
+            counts.add(threads);
+        }
+        counts.add(max);
+        return counts;
+    }
+}
@@ -0,0 +1,68 @@
+package sebfisch.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Common view on the benchmarked executors, which do not share an interface
+ * beyond {@link Executor}.
+ */
+interface BenchmarkedExecutor extends Executor {
+    <T> Future<T> submit(Callable<T> callable);
+
+    void shutdown();
+
+    void shutdownNow();
+
+    void awaitTermination() throws InterruptedException;
+
+    static BenchmarkedExecutor of(ExecutorService executor) {
+        return new Adapter(executor, executor::submit, executor::shutdown, executor::shutdownNow,
+                () -> executor.awaitTermination(1, TimeUnit.HOURS));
+    }
+
+    static BenchmarkedExecutor of(NewThreadPerTaskExecutor executor) {
+        return new Adapter(executor, executor::submit, executor::shutdown, executor::shutdownNow,
+                executor::awaitTermination);
+    }
+
+    interface Submitter {
+        <T> Future<T> submit(Callable<T> callable);
+    }
+
+    interface Termination {
+        void await() throws InterruptedException;
+    }
+
+    // forwards to the methods of an executor given as method references
+    record Adapter(Executor executor, Submitter submitter, Runnable stopper, Runnable interrupter,
+            Termination termination) implements BenchmarkedExecutor {
+        @Override
+        public void execute(Runnable task) {
+            executor.execute(task);
+        }
+
+        @Override
+        public <T> Future<T> submit(Callable<T> callable) {
+            return submitter.submit(callable);
+        }
+
+        @Override
+        public void shutdown() {
+            stopper.run();
+        }
+
+        @Override
+        public void shutdownNow() {
+            interrupter.run();
+        }
+
+        @Override
+        public void awaitTermination() throws InterruptedException {
+            termination.await();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package sebfisch.concurrent;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The executors of this package together with their counterparts from
+ * {@link Executors} and {@link ForkJoinPool} as baselines.
+ *
+ * {@link SingleThreadExecutor} and
+ * {@link AlternativeSingleThreadExecutorService} are left out, because they
+ * cannot be shut down until their workshop tasks are solved.
+ */
+public enum ExecutorKind {
+    SINGLE_THREAD_EXECUTOR_SERVICE {
+        @Override
+        BenchmarkedExecutor create() {
+            return BenchmarkedExecutor.of(new SingleThreadExecutorService());
+        }
+    },
+    SPINNING_SINGLE_THREAD_EXECUTOR_SERVICE {
+        @Override
+        BenchmarkedExecutor create() {
+            return BenchmarkedExecutor.of(new SingleThreadExecutorService(IdleStrategy.SPIN_PARK));
+        }
+    },
+    NEW_THREAD_PER_TASK_EXECUTOR {
+        @Override
+        BenchmarkedExecutor create() {
+            return BenchmarkedExecutor.of(new NewThreadPerTaskExecutor());
+        }
+    },
+    VIRTUAL_THREAD_PER_TASK_EXECUTOR {
+        @Override
+        BenchmarkedExecutor create() {
+            return BenchmarkedExecutor.of(NewThreadPerTaskExecutor.newVirtualThreadPerTaskExecutor());
+        }
+    },
+    WORK_STEALING_EXECUTOR_SERVICE {
+        @Override
+        BenchmarkedExecutor create() {
+            return BenchmarkedExecutor.of(new WorkStealingExecutorService());
+        }
+    },
+    STANDARD_SINGLE_THREAD_EXECUTOR {
+        @Override
+        BenchmarkedExecutor create() {
+            return BenchmarkedExecutor.of(Executors.newSingleThreadExecutor());
+        }
+    },
+    STANDARD_THREAD_PER_TASK_EXECUTOR {
+        @Override
+        BenchmarkedExecutor create() {
+            return BenchmarkedExecutor.of(Executors.newThreadPerTaskExecutor(Thread::new));
+        }
+    },
+    STANDARD_VIRTUAL_THREAD_PER_TASK_EXECUTOR {
+        @Override
+        BenchmarkedExecutor create() {
+            return BenchmarkedExecutor.of(Executors.newVirtualThreadPerTaskExecutor());
+        }
+    },
+    STANDARD_FORK_JOIN_POOL {
+        @Override
+        BenchmarkedExecutor create() {
+            return BenchmarkedExecutor.of(new ForkJoinPool());
+        }
+    };
+
+    abstract BenchmarkedExecutor create();
+}
@@ -0,0 +1,63 @@
+package sebfisch.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Samples the time from handing a task to an executor until the task starts
+ * running. With more producer threads this includes the time spent waiting
+ * behind tasks of other producers.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LatencyBenchmark {
+    @State(Scope.Benchmark)
+    public static class ExecutorState {
+        @Param
+        ExecutorKind kind;
+
+        BenchmarkedExecutor executor;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            executor = kind.create();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws InterruptedException {
+            executor.shutdown();
+            executor.awaitTermination();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ProducerState {
+        volatile boolean started;
+        final Runnable task = () -> started = true;
+    }
+
+    @Benchmark
+    public void enqueueToStart(ExecutorState state, ProducerState producer) {
+        producer.started = false;
+        state.executor.execute(producer.task);
+        while (!producer.started) {
+            Thread.onSpinWait();
+        }
+    }
+}
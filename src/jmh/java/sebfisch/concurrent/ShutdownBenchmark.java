@@ -0,0 +1,59 @@
+package sebfisch.concurrent;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the cost of shutting down an executor and waiting for its
+ * termination, after a number of trivial tasks have been queued.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 100)
+@Fork(1)
+public class ShutdownBenchmark {
+    @State(Scope.Thread)
+    public static class ExecutorState {
+        @Param
+        ExecutorKind kind;
+
+        @Param({ "0", "100" })
+        int queuedTasks;
+
+        BenchmarkedExecutor executor;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            executor = kind.create();
+            for (int i = 0; i < queuedTasks; i++) {
+                executor.execute(() -> {
+                });
+            }
+        }
+    }
+
+    @Benchmark
+    public void shutdownAndAwaitTermination(ExecutorState state) throws InterruptedException {
+        state.executor.shutdown();
+        state.executor.awaitTermination();
+    }
+
+    @Benchmark
+    public void shutdownNowAndAwaitTermination(ExecutorState state) throws InterruptedException {
+        state.executor.shutdownNow();
+        state.executor.awaitTermination();
+    }
+}
@@ -0,0 +1,87 @@
+package sebfisch.concurrent;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures how many tasks per second the producer threads get through an
+ * executor. Every invocation hands over a batch of tasks and waits until all
+ * of them have run, so queues cannot grow without bound during measurement.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ThroughputBenchmark {
+    static final int BATCH_SIZE = 100;
+
+    @State(Scope.Benchmark)
+    public static class ExecutorState {
+        @Param
+        ExecutorKind kind;
+
+        BenchmarkedExecutor executor;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            executor = kind.create();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws InterruptedException {
+            executor.shutdown();
+            executor.awaitTermination();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ProducerState {
+        final AtomicInteger pending = new AtomicInteger();
+        final Runnable task = pending::decrementAndGet;
+        final Future<?>[] futures = new Future<?>[BATCH_SIZE];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void execute(ExecutorState state, ProducerState producer) {
+        producer.pending.set(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            state.executor.execute(producer.task);
+        }
+        while (producer.pending.get() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void submit(ExecutorState state, ProducerState producer, Blackhole blackhole)
+            throws InterruptedException, ExecutionException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            final int n = i;
+            producer.futures[i] = state.executor.submit(() -> n);
+        }
+        for (Future<?> future : producer.futures) {
+            blackhole.consume(future.get());
+        }
+    }
+}
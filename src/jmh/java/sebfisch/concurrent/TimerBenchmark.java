@@ -0,0 +1,88 @@
+package sebfisch.concurrent;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures scheduling timeouts that are cancelled before they fire, with
+ * many other timeouts pending.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimerBenchmark {
+    public enum SchedulerKind {
+        TIMING_WHEEL_SCHEDULED_EXECUTOR_SERVICE {
+            @Override
+            ScheduledExecutorService create() {
+                return new TimingWheelScheduledExecutorService();
+            }
+        },
+        STANDARD_SCHEDULED_THREAD_POOL_EXECUTOR {
+            @Override
+            ScheduledExecutorService create() {
+                final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+                executor.setRemoveOnCancelPolicy(true);
+                return executor;
+            }
+        };
+
+        abstract ScheduledExecutorService create();
+    }
+
+    @State(Scope.Benchmark)
+    public static class SchedulerState {
+        @Param
+        SchedulerKind kind;
+
+        @Param({ "0", "100000" })
+        int pendingTimeouts;
+
+        ScheduledExecutorService scheduler;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            scheduler = kind.create();
+            for (int i = 0; i < pendingTimeouts; i++) {
+                scheduler.schedule(() -> {
+                }, 1, TimeUnit.HOURS);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws InterruptedException {
+            scheduler.shutdownNow();
+            scheduler.awaitTermination(1, TimeUnit.HOURS);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ProducerState {
+        final Runnable timeout = () -> {
+        };
+    }
+
+    @Benchmark
+    public boolean scheduleAndCancel(SchedulerState state, ProducerState producer) {
+        final ScheduledFuture<?> future = state.scheduler.schedule(producer.timeout, 30, TimeUnit.SECONDS);
+        return future.cancel(false);
+    }
+}
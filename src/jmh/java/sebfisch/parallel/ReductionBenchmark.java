@@ -0,0 +1,86 @@
+package sebfisch.parallel;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares sums of long arrays with {@link ArrayReductions}, sequentially with
+ * scalar and vector kernels and in parallel, against {@code LongStream.sum}.
+ * The reductions are parallel themselves, so run it with {@code -t 1}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+@Threads(1)
+@State(Scope.Benchmark)
+public class ReductionBenchmark {
+    // fits into the level 2 cache, the level 3 cache, and neither
+    @Param({ "10000", "1000000", "100000000" })
+    int length;
+
+    long[] values;
+    final ReductionKernels scalar = new ScalarKernels();
+    final ReductionKernels vector = new VectorKernels();
+
+    @Setup
+    public void setUp() {
+        values = new Random(42).longs(length, -1_000_000, 1_000_000).toArray();
+    }
+
+    @Benchmark
+    public long rangeStream() {
+        return LongStream.range(0, length).sum();
+    }
+
+    @Benchmark
+    public long parallelRangeStream() {
+        return LongStream.range(0, length).parallel().sum();
+    }
+
+    @Benchmark
+    public long arrayStream() {
+        return Arrays.stream(values).sum();
+    }
+
+    @Benchmark
+    public long parallelArrayStream() {
+        return Arrays.stream(values).parallel().sum();
+    }
+
+    @Benchmark
+    public long scalarKernel() {
+        return scalar.sum(values, 0, length);
+    }
+
+    @Benchmark
+    public long vectorKernel() {
+        return vector.sum(values, 0, length);
+    }
+
+    @Benchmark
+    public long arrayReductions() {
+        return ArrayReductions.sum(values);
+    }
+
+    @Benchmark
+    public long dotProduct() {
+        return ArrayReductions.dot(values, values);
+    }
+}
@@ -1,12 +1,17 @@
 package sebfisch;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
+import sebfisch.concurrent.BoundCompletableFuture;
+import sebfisch.concurrent.SingleThreadExecutorService;
+
 public class CompletableFutureDemo {
     public static void main(String[] args) {
         concurrentComputations();
         racingWithoutInterruptions();
+        pipelineOnOwnExecutor();
     }
 
     private static void concurrentComputations() {
@@ -36,4 +41,15 @@ public class CompletableFutureDemo {
         CompletableFuture<Object> winner = CompletableFuture.anyOf(hello, world);
         System.out.println(winner.join());
     }
+
+    private static void pipelineOnOwnExecutor() {
+        try (ExecutorService executor = new SingleThreadExecutorService()) {
+            // all async stages run on the executor instead of the common pool
+            String greeting = BoundCompletableFuture.supplyAsync(() -> "Hello", executor)
+                    .thenCombineAsync(CompletableFuture.completedFuture("World"), "%s, %s!"::formatted)
+                    .thenApplyAsync(text -> "%s (on %s)".formatted(text, Thread.currentThread().getName()))
+                    .join();
+            System.out.println(greeting);
+        }
+    }
 }
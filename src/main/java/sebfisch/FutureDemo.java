@@ -1,14 +1,14 @@
 package sebfisch;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
+import sebfisch.concurrent.Race;
+
 public class FutureDemo {
     public static void main(String[] args) throws InterruptedException, ExecutionException {
         concurrentComputations();
@@ -24,23 +24,14 @@ public class FutureDemo {
 
     private static void racingWithInterruptions() throws InterruptedException, ExecutionException {
         ExecutorService executor = Executors.newThreadPerTaskExecutor(Thread::new);
-        List<Future<String>> futures = new ArrayList<>();
-        futures.add(executor.submit(() -> {
+        // the first result wins, the other task is interrupted
+        String winner = Race.firstSuccessful(executor, List.of(() -> {
             TimeUnit.SECONDS.sleep(2);
-            futures.get(1).cancel(true);
             return "Hello";
-        }));
-        futures.add(executor.submit(() -> {
+        }, () -> {
             TimeUnit.SECONDS.sleep(1);
-            futures.get(0).cancel(true);
             return "World";
         }));
-        for (Future<String> future : futures) {
-            try {
-                System.out.println(future.get());
-            } catch (CancellationException e) {
-                // no output if interrupted
-            }
-        }
+        System.out.println(winner);
     }
 }
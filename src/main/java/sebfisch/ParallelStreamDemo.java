@@ -1,52 +1,83 @@
 package sebfisch;
 
-import java.time.Duration;
-import java.time.Instant;
-import java.util.function.Supplier;
+import java.util.Arrays;
+import java.util.Random;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
 
+import sebfisch.benchmark.Harness;
+import sebfisch.parallel.ArrayReductions;
+import sebfisch.parallel.ForkJoinPoolRegistry;
+import sebfisch.parallel.MillerRabin;
+import sebfisch.parallel.PrimeScanner;
+import sebfisch.parallel.PrimeSieve;
+
 public class ParallelStreamDemo {
+    private static final Harness HARNESS = Harness.fromSystemProperties();
+    // parallel pipelines run on their own pool, not on the common pool
+    private static final ForkJoinPoolRegistry POOLS = new ForkJoinPoolRegistry();
+
     public static void main(String[] args) {
         printNumbersWithUsedThreads();
         comparePerformanceOfLargeSum();
+        compareArraySumPerformance();
         comparePrimeCheckPerformance();
+        comparePrimeScanPerformance();
+        HARNESS.writeReport();
+        POOLS.close();
     }
 
     private static void printNumbersWithUsedThreads() {
-        IntStream.range(0, 10)
+        POOLS.run("demo", () -> IntStream.range(0, 10)
                 .parallel()
                 .mapToObj(n -> "%d: %s".formatted(n, Thread.currentThread().getName()))
-                .forEach(System.out::println);
-    }
-
-    private static void printPerformance(String label, Supplier<?> supplier) {
-        Instant start = Instant.now();
-        Object result = supplier.get();
-        Instant end = Instant.now();
-        System.out.println("%s took: %s - result: %s"
-                .formatted(label, Duration.between(start, end), result));
+                .forEach(System.out::println));
     }
 
     private static void comparePerformanceOfLargeSum() {
         long bound = 2_000_000_000;
-        printPerformance("sequential sum",
+        HARNESS.measure("sequential sum",
                 () -> LongStream.range(0, bound).sum());
-        printPerformance("parallel sum",
-                () -> LongStream.range(0, bound).parallel().sum());
+        HARNESS.measure("parallel sum",
+                () -> POOLS.invoke("demo", () -> LongStream.range(0, bound).parallel().sum()));
+    }
+
+    private static void compareArraySumPerformance() {
+        long[] values = new Random(42).longs(10_000_000, -1_000, 1_000).toArray();
+        HARNESS.measure("sequential array sum",
+                () -> Arrays.stream(values).sum());
+        HARNESS.measure("parallel array sum",
+                () -> POOLS.invoke("demo", () -> Arrays.stream(values).parallel().sum()));
+        HARNESS.measure(ArrayReductions.isVectorized() ? "vectorized array sum" : "array reduction sum",
+                () -> POOLS.invoke("demo", () -> ArrayReductions.sum(values)));
     }
 
     private static void comparePrimeCheckPerformance() {
         int bound = 10_000_000;
-        printPerformance("sequential prime search",
+        HARNESS.measure("sequential prime search",
                 () -> IntStream.range(0, bound)
                         .filter(ParallelStreamDemo::isPrime)
                         .count());
-        printPerformance("parallel prime search",
-                () -> IntStream.range(0, bound)
+        HARNESS.measure("parallel prime search",
+                () -> POOLS.invoke("demo", () -> IntStream.range(0, bound)
                         .parallel()
                         .filter(ParallelStreamDemo::isPrime)
+                        .count()));
+        HARNESS.measure("segmented sieve",
+                () -> POOLS.invoke("demo", () -> PrimeSieve.countPrimes(0, bound)));
+        HARNESS.measure("Miller-Rabin prime search",
+                () -> POOLS.invoke("demo", () -> PrimeScanner.countPrimes(0, bound)));
+    }
+
+    private static void comparePrimeScanPerformance() {
+        // too large to sieve, and too large for trial division
+        long from = Long.MAX_VALUE - 1_000_000;
+        HARNESS.measure("sequential Miller-Rabin search near 2^63",
+                () -> LongStream.range(from, Long.MAX_VALUE)
+                        .filter(MillerRabin::isPrime)
                         .count());
+        HARNESS.measure("fork/join Miller-Rabin search near 2^63",
+                () -> POOLS.invoke("demo", () -> PrimeScanner.countPrimes(from, Long.MAX_VALUE)));
     }
 
     private static boolean isPrime(int number) {
@@ -56,7 +87,8 @@ public class ParallelStreamDemo {
             return true;
         if (number % 2 == 0)
             return false;
-        for (int i = 3; i <= Math.sqrt(number); i += 2) {
+        int limit = (int) Math.sqrt(number);
+        for (int i = 3; i <= limit; i += 2) {
             if (number % i == 0)
                 return false;
         }
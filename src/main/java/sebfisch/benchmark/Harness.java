@@ -0,0 +1,170 @@
+package sebfisch.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Measures computations in main methods, where JMH is not at hand.
+ *
+ * Each computation first runs a number of warmup iterations, so that it is
+ * compiled by the JIT, and then a number of measured iterations whose median,
+ * 90th percentile and standard deviation are reported together with the
+ * garbage collections and allocations during the measured iterations.
+ * Results are consumed by a volatile write, so that the JIT cannot eliminate
+ * their computation. All results can be written as CSV or JSON to compare
+ * them across builds.
+ *
+ * Unlike JMH, all computations run in the same JVM, so later ones may be
+ * affected by the profile collected for earlier ones.
+ */
+public final class Harness {
+    public static final int DEFAULT_WARMUP_ITERATIONS = 3;
+    public static final int DEFAULT_ITERATIONS = 10;
+
+    static final String WARMUP_PROPERTY = "sebfisch.benchmark.warmup";
+    static final String ITERATIONS_PROPERTY = "sebfisch.benchmark.iterations";
+    static final String REPORT_PROPERTY = "sebfisch.benchmark.report";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    // written by every iteration, so that results are not dead code
+    private static volatile Object sink;
+
+    private final int warmupIterations;
+    private final int iterations;
+    private final Path report;
+    private final List<Result> results = new ArrayList<>();
+
+    public Harness() {
+        this(DEFAULT_WARMUP_ITERATIONS, DEFAULT_ITERATIONS, null);
+    }
+
+    /**
+     * Creates a harness that runs every computation for the given number of
+     * warmup and measured iterations and writes its report to the given file,
+     * if not {@code null}.
+     */
+    public Harness(int warmupIterations, int iterations, Path report) {
+        if (warmupIterations < 0) {
+            throw new IllegalArgumentException("Warmup iterations must not be negative");
+        }
+        if (iterations <= 0) {
+            throw new IllegalArgumentException("Iterations must be positive");
+        }
+        this.warmupIterations = warmupIterations;
+        this.iterations = iterations;
+        this.report = report;
+    }
+
+    /**
+     * Creates a harness configured by the system properties
+     * {@code sebfisch.benchmark.warmup}, {@code sebfisch.benchmark.iterations}
+     * and {@code sebfisch.benchmark.report}. A report file ending with
+     * {@code .json} is written as JSON, any other as CSV.
+     */
+    public static Harness fromSystemProperties() {
+        final String report = System.getProperty(REPORT_PROPERTY);
+        return new Harness(Integer.getInteger(WARMUP_PROPERTY, DEFAULT_WARMUP_ITERATIONS),
+                Integer.getInteger(ITERATIONS_PROPERTY, DEFAULT_ITERATIONS),
+                report == null ? null : Path.of(report));
+    }
+
+    /**
+     * Measures the computation, prints a summary and keeps the result for the
+     * report.
+     */
+    public Result measure(String label, Supplier<?> computation) {
+        for (int i = 0; i < warmupIterations; i++) {
+            sink = computation.get();
+        }
+        final long[] nanos = new long[iterations];
+        final long gcCountBefore = gcCount();
+        final long gcMillisBefore = gcMillis();
+        final long allocatedBefore = allocatedBytes();
+        Object value = null;
+        for (int i = 0; i < iterations; i++) {
+            final long start = System.nanoTime();
+            value = computation.get();
+            nanos[i] = System.nanoTime() - start;
+            sink = value;
+        }
+        final Result result = Result.of(label, nanos, gcCount() - gcCountBefore, gcMillis() - gcMillisBefore,
+                allocatedBytes() - allocatedBefore, value);
+        results.add(result);
+        System.out.println(result.summary());
+        return result;
+    }
+
+    public List<Result> results() {
+        return List.copyOf(results);
+    }
+
+    /**
+     * Writes all results to the configured report file, if any.
+     *
+     * @throws UncheckedIOException if the report cannot be written
+     */
+    public void writeReport() {
+        if (report == null) {
+            return;
+        }
+        try (Writer writer = Files.newBufferedWriter(report)) {
+            if (report.getFileName().toString().endsWith(".json")) {
+                writeJson(writer);
+            } else {
+                writeCsv(writer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void writeCsv(Appendable out) throws IOException {
+        out.append(Result.CSV_HEADER).append('\n');
+        for (Result result : results) {
+            out.append(result.toCsv()).append('\n');
+        }
+    }
+
+    public void writeJson(Appendable out) throws IOException {
+        out.append('[');
+        for (int i = 0; i < results.size(); i++) {
+            out.append(i == 0 ? "\n  " : ",\n  ").append(results.get(i).toJson());
+        }
+        out.append("\n]\n");
+    }
+
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            // -1 if undefined for this collector
+            count += Math.max(collector.getCollectionCount(), 0);
+        }
+        return count;
+    }
+
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(collector.getCollectionTime(), 0);
+        }
+        return millis;
+    }
+
+    // of all threads, including the workers of parallel streams
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean threads && threads.isThreadAllocatedMemoryEnabled()) {
+            return threads.getTotalThreadAllocatedBytes();
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,106 @@
+package sebfisch.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * Statistics of the measured iterations of one benchmark, with times in
+ * nanoseconds. Garbage collections and allocated bytes are totals over all
+ * measured iterations and all threads.
+ */
+public record Result(String label, int iterations, long medianNanos, long p90Nanos, double meanNanos,
+        double stddevNanos, long minNanos, long maxNanos, long gcCount, long gcMillis, long allocatedBytes,
+        String value) {
+
+    static final String CSV_HEADER = "label,iterations,medianNanos,p90Nanos,meanNanos,stddevNanos,"
+            + "minNanos,maxNanos,gcCount,gcMillis,allocatedBytes,value";
+
+    /**
+     * Computes the statistics of the given iteration times.
+     */
+    static Result of(String label, long[] nanos, long gcCount, long gcMillis, long allocatedBytes, Object value) {
+        if (nanos.length == 0) {
+            throw new IllegalArgumentException("Iterations must be positive");
+        }
+        final long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        final double mean = Arrays.stream(sorted).average().orElseThrow();
+        // sample standard deviation, zero for a single iteration
+        final double squares = Arrays.stream(sorted).mapToDouble(n -> (n - mean) * (n - mean)).sum();
+        final double stddev = sorted.length == 1 ? 0 : Math.sqrt(squares / (sorted.length - 1));
+        return new Result(label, sorted.length, percentile(sorted, 50), percentile(sorted, 90), mean, stddev,
+                sorted[0], sorted[sorted.length - 1], gcCount, gcMillis, allocatedBytes, String.valueOf(value));
+    }
+
+    // nearest rank, so the result is one of the samples
+    static long percentile(long[] sorted, double percentile) {
+        final int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    public long allocatedBytesPerIteration() {
+        return allocatedBytes / iterations;
+    }
+
+    /**
+     * Returns a line for the console with times in milliseconds.
+     */
+    public String summary() {
+        return "%s: median %.3f ms, p90 %.3f ms, stddev %.3f ms (%d iterations), %d GCs in %d ms, %s allocated per iteration - result: %s"
+                .formatted(label, medianNanos / 1e6, p90Nanos / 1e6, stddevNanos / 1e6, iterations, gcCount,
+                        gcMillis, bytes(allocatedBytesPerIteration()), value);
+    }
+
+    private static String bytes(long bytes) {
+        if (bytes < 1 << 10) {
+            return bytes + " B";
+        }
+        if (bytes < 1 << 20) {
+            return "%.1f KiB".formatted(bytes / 1024.0);
+        }
+        return "%.1f MiB".formatted(bytes / (1024.0 * 1024));
+    }
+
+    String toCsv() {
+        return String.join(",", csvField(label), Integer.toString(iterations), Long.toString(medianNanos),
+                Long.toString(p90Nanos), Double.toString(meanNanos), Double.toString(stddevNanos),
+                Long.toString(minNanos), Long.toString(maxNanos), Long.toString(gcCount), Long.toString(gcMillis),
+                Long.toString(allocatedBytes), csvField(value));
+    }
+
+    private static String csvField(String text) {
+        if (text.contains(",") || text.contains("\"") || text.contains("\n")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    String toJson() {
+        return ("{\"label\":%s,\"iterations\":%d,\"medianNanos\":%d,\"p90Nanos\":%d,\"meanNanos\":%s,"
+                + "\"stddevNanos\":%s,\"minNanos\":%d,\"maxNanos\":%d,\"gcCount\":%d,\"gcMillis\":%d,"
+                + "\"allocatedBytes\":%d,\"value\":%s}")
+                .formatted(jsonString(label), iterations, medianNanos, p90Nanos, Double.toString(meanNanos),
+                        Double.toString(stddevNanos), minNanos, maxNanos, gcCount, gcMillis, allocatedBytes,
+                        jsonString(value));
+    }
+
+    private static String jsonString(String text) {
+        final StringBuilder json = new StringBuilder("\"");
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append("\\u%04x".formatted((int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"').toString();
+    }
+}
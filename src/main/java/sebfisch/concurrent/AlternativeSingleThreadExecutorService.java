@@ -1,5 +1,7 @@
 package sebfisch.concurrent;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.BlockingQueue;
@@ -10,32 +12,99 @@ import java.util.concurrent.TimeUnit;
 public class AlternativeSingleThreadExecutorService extends AbstractExecutorService {
     private Thread worker;
     private final BlockingQueue<Runnable> taskQueue = new LinkedBlockingQueue<>();
+    private final TaskBatch taskBatch;
+    private final QueueBudget queueBudget;
+    private final List<Runnable> drainedTasks = new ArrayList<>();
     private volatile boolean isShutdown = false;
 
     public AlternativeSingleThreadExecutorService() {
+        this(TaskBatch.DEFAULT_MAX_SIZE, TaskBatch.DEFAULT_LATENCY_TARGET);
+    }
+
+    /**
+     * Creates an executor whose queue is bounded by the given limit.
+     */
+    public AlternativeSingleThreadExecutorService(QueueLimit queueLimit) {
+        this(TaskBatch.DEFAULT_MAX_SIZE, TaskBatch.DEFAULT_LATENCY_TARGET, queueLimit);
+    }
+
+    /**
+     * Creates an executor whose worker takes up to {@code maxBatchSize} tasks
+     * from the queue at once. The batch size is reduced while running a batch
+     * takes longer than {@code batchLatencyTarget}.
+     */
+    public AlternativeSingleThreadExecutorService(int maxBatchSize, Duration batchLatencyTarget) {
+        this(maxBatchSize, batchLatencyTarget, QueueLimit.UNBOUNDED);
+    }
+
+    /**
+     * Creates an executor with the given batch size and queue limit. Tasks
+     * taken into a batch no longer count against the queue limit.
+     */
+    public AlternativeSingleThreadExecutorService(int maxBatchSize, Duration batchLatencyTarget,
+            QueueLimit queueLimit) {
+        taskBatch = new TaskBatch(maxBatchSize, batchLatencyTarget);
+        queueBudget = new QueueBudget(queueLimit, taskQueue::poll);
         worker = new Thread(this::runQueuedTasks);
         worker.start();
     }
 
     @Override
     public void execute(Runnable task) {
-        if (isShutdown) {
-            throw new RejectedExecutionException("Executor has been shut down");
+        execute(task, 1);
+    }
+
+    /**
+     * Executes the task, which counts with the given weight against a
+     * weighted queue limit.
+     */
+    public void execute(Runnable task, long weight) {
+        final Runnable traced = TaskEvents.traced(this, task);
+        final Runnable entry;
+        try {
+            if (isShutdown) {
+                throw new RejectedExecutionException("Executor has been shut down");
+            }
+            entry = queueBudget.acquire(traced, weight);
+        } catch (RejectedExecutionException exception) {
+            TaskEvents.rejected(this, task, exception);
+            throw exception;
         }
-        taskQueue.offer(task);
+        if (entry == null) {
+            traced.run();
+            return;
+        }
+        taskQueue.offer(entry);
+        TaskEvents.enqueued(this, task);
     }
 
     private void runQueuedTasks() {
         while (!isShutdown || !taskQueue.isEmpty()) {
             try {
-                taskQueue.take().run();
+                takeQueuedTasks();
+                for (Runnable task = taskBatch.poll(); task != null; task = taskBatch.poll()) {
+                    try {
+                        task.run();
+                    } catch (Exception exception) {
+                        System.err.println(exception.getMessage());
+                    }
+                }
             } catch (InterruptedException e) {
                 // taskQueue.take() throws InterruptedException even if taskQueue is not empty
                 // TODO Task 2.2: terminate when appropriate
-            } catch (Exception exception) {
-                System.err.println(exception.getMessage());
             }
         }
+        TaskEvents.terminated(this);
+    }
+
+    private void takeQueuedTasks() throws InterruptedException {
+        final Runnable first = taskQueue.take();
+        taskBatch.clear();
+        taskBatch.add(queueBudget.release(first));
+        taskQueue.drainTo(drainedTasks, taskBatch.limit() - 1);
+        drainedTasks.forEach(task -> taskBatch.add(queueBudget.release(task)));
+        drainedTasks.clear();
+        taskBatch.start();
     }
 
     @Override
@@ -63,6 +132,7 @@ public class AlternativeSingleThreadExecutorService extends AbstractExecutorServ
     @Override
     public List<Runnable> shutdownNow() {
         // TODO Task 2.3: implement shutdownNow method
+        // (tasks taken into taskBatch are no longer in taskQueue)
         throw new UnsupportedOperationException();
     }
 }
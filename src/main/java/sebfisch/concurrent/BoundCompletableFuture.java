@@ -0,0 +1,76 @@
+package sebfisch.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Completable future whose asynchronous stages run on a given executor
+ * instead of the common fork/join pool.
+ *
+ * All dependent futures are bound to the same executor, so every
+ * {@code *Async} method without an explicit executor argument, like
+ * {@link #thenApplyAsync(java.util.function.Function)}, runs its action on
+ * that executor. Non-async stages still run in the thread that completes the
+ * previous stage.
+ */
+public class BoundCompletableFuture<T> extends CompletableFuture<T> {
+    private final Executor executor;
+
+    public BoundCompletableFuture(Executor executor) {
+        if (executor == null) {
+            throw new NullPointerException();
+        }
+        this.executor = executor;
+    }
+
+    /**
+     * Returns a future bound to the executor that is completed with the
+     * result of the supplier, which runs on the executor.
+     */
+    public static <U> BoundCompletableFuture<U> supplyAsync(Supplier<U> supplier, Executor executor) {
+        final BoundCompletableFuture<U> future = new BoundCompletableFuture<>(executor);
+        future.completeAsync(supplier);
+        return future;
+    }
+
+    public static BoundCompletableFuture<Void> runAsync(Runnable task, Executor executor) {
+        return supplyAsync(() -> {
+            task.run();
+            return null;
+        }, executor);
+    }
+
+    public static <U> BoundCompletableFuture<U> completedFuture(U value, Executor executor) {
+        final BoundCompletableFuture<U> future = new BoundCompletableFuture<>(executor);
+        future.complete(value);
+        return future;
+    }
+
+    /**
+     * Returns a future bound to the executor that is completed like the
+     * given stage, for example one created by {@link CompletableFuture#allOf}.
+     */
+    public static <U> BoundCompletableFuture<U> bind(CompletionStage<U> stage, Executor executor) {
+        final BoundCompletableFuture<U> future = new BoundCompletableFuture<>(executor);
+        stage.whenComplete((result, failure) -> {
+            if (failure == null) {
+                future.complete(result);
+            } else {
+                future.completeExceptionally(failure);
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public Executor defaultExecutor() {
+        return executor;
+    }
+
+    @Override
+    public <U> CompletableFuture<U> newIncompleteFuture() {
+        return new BoundCompletableFuture<>(executor);
+    }
+}
@@ -0,0 +1,233 @@
+package sebfisch.concurrent;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Task counters and latency histograms of an executor.
+ *
+ * Tasks are counted when they are submitted, rejected, start and finish.
+ * The time between submission and start is recorded as queue wait and the
+ * time between start and finish as execution time. Counters are striped, so
+ * producers and workers do not contend on them, and recording does not take
+ * locks.
+ *
+ * Executors are instrumented by wrapping them with {@link #instrument} or
+ * with an {@link InstrumentedExecutorService}. The metrics can be published
+ * as an MXBean named {@code sebfisch.concurrent:type=Executor,name=<name>}.
+ */
+public final class ExecutorMetrics implements ExecutorMetricsMXBean {
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+    private final LatencyHistogram queueWait = new LatencyHistogram();
+    private final LatencyHistogram executionTime = new LatencyHistogram();
+    private ObjectName objectName;
+
+    /**
+     * Returns an executor that runs tasks with the given executor and records
+     * them in these metrics.
+     */
+    public Executor instrument(Executor executor) {
+        return task -> execute(executor, task);
+    }
+
+    void execute(Executor executor, Runnable task) {
+        final Runnable instrumented = wrap(task);
+        try {
+            executor.execute(instrumented);
+        } catch (RejectedExecutionException exception) {
+            taskRejected();
+            throw exception;
+        }
+    }
+
+    /**
+     * Counts the task as submitted and returns a task that records its
+     * queue wait and execution time when it runs.
+     */
+    Runnable wrap(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        submitted.increment();
+        return new InstrumentedTask(task, System.nanoTime());
+    }
+
+    /**
+     * Returns the task wrapped by {@link #wrap} and counts it as discarded,
+     * for tasks removed from a queue without running.
+     */
+    Runnable unwrap(Runnable task) {
+        if (task instanceof InstrumentedTask instrumented) {
+            discarded.increment();
+            return instrumented.task;
+        }
+        return task;
+    }
+
+    void taskRejected() {
+        submitted.decrement();
+        rejected.increment();
+    }
+
+    void taskFailed() {
+        failed.increment();
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under the given
+     * name.
+     *
+     * @throws IllegalStateException if the metrics are already registered or
+     *                               the name is taken
+     */
+    public synchronized void register(String name) {
+        if (objectName != null) {
+            throw new IllegalStateException("Metrics already registered as " + objectName);
+        }
+        try {
+            final ObjectName candidate = new ObjectName("sebfisch.concurrent:type=Executor,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, candidate);
+            objectName = candidate;
+        } catch (JMException exception) {
+            throw new IllegalStateException("Cannot register metrics " + name, exception);
+        }
+    }
+
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+        } catch (JMException exception) {
+            // already unregistered through the MBean server
+        }
+        objectName = null;
+    }
+
+    /**
+     * Returns the name of the registered MXBean or {@code null} if the
+     * metrics are not registered.
+     */
+    public synchronized ObjectName getObjectName() {
+        return objectName;
+    }
+
+    @Override
+    public long getSubmittedTaskCount() {
+        return submitted.sum();
+    }
+
+    @Override
+    public long getRejectedTaskCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Returns the number of tasks that finished, including failed ones.
+     */
+    @Override
+    public long getCompletedTaskCount() {
+        return completed.sum();
+    }
+
+    @Override
+    public long getFailedTaskCount() {
+        return failed.sum();
+    }
+
+    /**
+     * Returns an estimate of the number of submitted tasks that have not
+     * started yet. Tasks dropped by the executor without running are still
+     * counted.
+     */
+    @Override
+    public long getQueueDepth() {
+        return Math.max(0, submitted.sum() - started.sum() - discarded.sum());
+    }
+
+    @Override
+    public long getQueueWaitP50() {
+        return queueWait.percentile(50);
+    }
+
+    @Override
+    public long getQueueWaitP99() {
+        return queueWait.percentile(99);
+    }
+
+    @Override
+    public long getQueueWaitP999() {
+        return queueWait.percentile(99.9);
+    }
+
+    @Override
+    public long getQueueWaitMax() {
+        return queueWait.max();
+    }
+
+    @Override
+    public long getExecutionTimeP50() {
+        return executionTime.percentile(50);
+    }
+
+    @Override
+    public long getExecutionTimeP99() {
+        return executionTime.percentile(99);
+    }
+
+    @Override
+    public long getExecutionTimeP999() {
+        return executionTime.percentile(99.9);
+    }
+
+    @Override
+    public long getExecutionTimeMax() {
+        return executionTime.max();
+    }
+
+    /**
+     * Discards the recorded latencies but keeps the task counters.
+     */
+    @Override
+    public void resetLatencies() {
+        queueWait.reset();
+        executionTime.reset();
+    }
+
+    private final class InstrumentedTask implements Runnable {
+        final Runnable task;
+        final long submitNanos;
+
+        InstrumentedTask(Runnable task, long submitNanos) {
+            this.task = task;
+            this.submitNanos = submitNanos;
+        }
+
+        @Override
+        public void run() {
+            final long startNanos = System.nanoTime();
+            started.increment();
+            queueWait.record(startNanos - submitNanos);
+            try {
+                task.run();
+            } catch (RuntimeException | Error failure) {
+                failed.increment();
+                throw failure;
+            } finally {
+                executionTime.record(System.nanoTime() - startNanos);
+                completed.increment();
+            }
+        }
+    }
+}
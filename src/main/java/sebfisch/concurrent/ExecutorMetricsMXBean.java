@@ -0,0 +1,35 @@
+package sebfisch.concurrent;
+
+/**
+ * Management interface of {@link ExecutorMetrics}. Durations are in
+ * nanoseconds.
+ */
+public interface ExecutorMetricsMXBean {
+    long getSubmittedTaskCount();
+
+    long getRejectedTaskCount();
+
+    long getCompletedTaskCount();
+
+    long getFailedTaskCount();
+
+    long getQueueDepth();
+
+    long getQueueWaitP50();
+
+    long getQueueWaitP99();
+
+    long getQueueWaitP999();
+
+    long getQueueWaitMax();
+
+    long getExecutionTimeP50();
+
+    long getExecutionTimeP99();
+
+    long getExecutionTimeP999();
+
+    long getExecutionTimeMax();
+
+    void resetLatencies();
+}
@@ -0,0 +1,70 @@
+package sebfisch.concurrent;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+
+/**
+ * Submits tasks to an executor using futures that are recycled instead of
+ * allocated for every task.
+ *
+ * Futures are recycled by the thread that takes their result and reused by
+ * the next submission from the same thread. In steady state, a thread that
+ * submits tasks and takes their results does not allocate a future per task.
+ */
+public final class FuturePool {
+    public static final int DEFAULT_MAX_POOLED = 1 << 10;
+
+    private final Executor executor;
+    private final int maxPooled;
+    private final ThreadLocal<ArrayDeque<PooledFuture<?>>> pooled = ThreadLocal.withInitial(ArrayDeque::new);
+
+    public FuturePool(Executor executor) {
+        this(executor, DEFAULT_MAX_POOLED);
+    }
+
+    /**
+     * Creates a pool that keeps at most {@code maxPooled} unused futures per
+     * thread.
+     */
+    public FuturePool(Executor executor, int maxPooled) {
+        if (maxPooled < 0) {
+            throw new IllegalArgumentException("Pool size must not be negative");
+        }
+        this.executor = executor;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Executes the callable and returns a future for its result. Call
+     * {@link PooledFuture#take()} to recycle the future.
+     */
+    public <T> PooledFuture<T> submit(Callable<? extends T> callable) {
+        if (callable == null) {
+            throw new NullPointerException();
+        }
+        final PooledFuture<T> future = acquire();
+        future.prepare(callable);
+        try {
+            executor.execute(future);
+        } catch (RuntimeException exception) {
+            recycle(future);
+            throw exception;
+        }
+        return future;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> PooledFuture<T> acquire() {
+        final PooledFuture<?> future = pooled.get().pollLast();
+        return future == null ? new PooledFuture<>(this) : (PooledFuture<T>) future;
+    }
+
+    void recycle(PooledFuture<?> future) {
+        future.reset();
+        final ArrayDeque<PooledFuture<?>> futures = pooled.get();
+        if (futures.size() < maxPooled) {
+            futures.addLast(future);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package sebfisch.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Submits tasks to a {@link NewThreadPerTaskExecutor} and starts a backup
+ * attempt of a task if it has not finished within a percentile of the recent
+ * latencies of the same operation.
+ *
+ * The first attempt that succeeds completes the returned future and the other
+ * attempt is interrupted. Each task is hedged at most once, and hedges are
+ * limited to a fraction of all submitted tasks, so that hedging does not
+ * overload the backend when it is slow for everyone. Until enough latencies
+ * of an operation have been recorded, its tasks are hedged after an initial
+ * delay.
+ */
+public final class HedgingExecutor {
+    public static final double DEFAULT_PERCENTILE = 95;
+    public static final double DEFAULT_HEDGE_RATIO = 0.05;
+    public static final Duration DEFAULT_INITIAL_DELAY = Duration.ofMillis(10);
+
+    // latencies of this many successful tasks determine the next hedge delay
+    static final int WINDOW_SIZE = 1 << 8;
+    // hedges that can be saved up while tasks finish without hedging
+    private static final int MAX_SAVED_HEDGES = 10;
+    private static final long HEDGE_COST = 1_000_000;
+
+    private final NewThreadPerTaskExecutor executor;
+    private final ScheduledExecutorService timer;
+    private final double percentile;
+    private final long initialDelayNanos;
+    private final long budgetPerTask;
+    // in millionths of a hedge
+    private final AtomicLong budget = new AtomicLong();
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+    private final LongAdder hedges = new LongAdder();
+
+    public HedgingExecutor(NewThreadPerTaskExecutor executor, ScheduledExecutorService timer) {
+        this(executor, timer, DEFAULT_PERCENTILE, DEFAULT_HEDGE_RATIO, DEFAULT_INITIAL_DELAY);
+    }
+
+    /**
+     * Creates an executor that hedges tasks still running after the given
+     * percentile of recent latencies, but at most the given fraction of all
+     * tasks. The timer is used to start the hedges.
+     */
+    public HedgingExecutor(NewThreadPerTaskExecutor executor, ScheduledExecutorService timer, double percentile,
+            double hedgeRatio, Duration initialDelay) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100");
+        }
+        if (hedgeRatio < 0 || hedgeRatio > 1) {
+            throw new IllegalArgumentException("Hedge ratio must be between 0 and 1");
+        }
+        this.executor = executor;
+        this.timer = timer;
+        this.percentile = percentile;
+        this.initialDelayNanos = initialDelay.toNanos();
+        this.budgetPerTask = Math.round(hedgeRatio * HEDGE_COST);
+    }
+
+    /**
+     * Runs the callable as an attempt of the given operation and possibly a
+     * second time as a hedge. Cancelling the returned future interrupts all
+     * attempts.
+     */
+    public <T> CompletableFuture<T> submit(String operation, Callable<T> callable) {
+        final OperationStats stats = operations.computeIfAbsent(operation, key -> new OperationStats());
+        budget.updateAndGet(saved -> Math.min(saved + budgetPerTask, MAX_SAVED_HEDGES * HEDGE_COST));
+        final HedgedTask<T> task = new HedgedTask<>(callable, stats);
+        task.launch();
+        final ScheduledFuture<?> hedge = timer.schedule(task::hedge, stats.hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+        task.result.whenComplete((result, failure) -> {
+            hedge.cancel(false);
+            task.cancelAttempts();
+        });
+        return task.result;
+    }
+
+    /**
+     * Returns the time after which tasks of the given operation are hedged.
+     */
+    public Duration getHedgeDelay(String operation) {
+        final OperationStats stats = operations.get(operation);
+        return Duration.ofNanos(stats == null ? initialDelayNanos : stats.hedgeDelayNanos());
+    }
+
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    private boolean tryHedge() {
+        while (true) {
+            final long saved = budget.get();
+            if (saved < HEDGE_COST) {
+                return false;
+            }
+            if (budget.compareAndSet(saved, saved - HEDGE_COST)) {
+                hedges.increment();
+                return true;
+            }
+        }
+    }
+
+    // for hedges that were not started because the task finished in between
+    private void refundHedge() {
+        budget.updateAndGet(saved -> Math.min(saved + HEDGE_COST, MAX_SAVED_HEDGES * HEDGE_COST));
+        hedges.decrement();
+    }
+
+    private final class OperationStats {
+        private final AtomicInteger recorded = new AtomicInteger();
+        private volatile LatencyHistogram window = new LatencyHistogram();
+        private volatile long hedgeDelayNanos = initialDelayNanos;
+
+        long hedgeDelayNanos() {
+            return hedgeDelayNanos;
+        }
+
+        void record(long nanos) {
+            final LatencyHistogram current = window;
+            current.record(nanos);
+            if (recorded.incrementAndGet() % WINDOW_SIZE == 0) {
+                // late records of the previous window go to the old histogram
+                window = new LatencyHistogram();
+                hedgeDelayNanos = current.percentile(percentile);
+            }
+        }
+    }
+
+    private final class HedgedTask<T> {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        private final Callable<T> callable;
+        private final OperationStats stats;
+        // guarded by this
+        private final List<Attempt> attempts = new ArrayList<>(2);
+        private int running = 0;
+
+        HedgedTask(Callable<T> callable, OperationStats stats) {
+            this.callable = callable;
+            this.stats = stats;
+        }
+
+        /**
+         * Starts an attempt unless the result is already known. Returns
+         * whether an attempt was started.
+         */
+        boolean launch() {
+            final Attempt attempt = new Attempt();
+            synchronized (this) {
+                // cancelAttempts copies the attempts under the same monitor
+                // after the result is done, so it cannot miss this one
+                if (result.isDone()) {
+                    return false;
+                }
+                attempts.add(attempt);
+                running++;
+            }
+            try {
+                executor.execute(attempt);
+            } catch (RejectedExecutionException exception) {
+                synchronized (this) {
+                    attempts.remove(attempt);
+                    running--;
+                }
+                throw exception;
+            }
+            return true;
+        }
+
+        void hedge() {
+            if (result.isDone() || !tryHedge()) {
+                return;
+            }
+            try {
+                if (!launch()) {
+                    refundHedge();
+                }
+            } catch (RejectedExecutionException exception) {
+                // the first attempt may still succeed
+            }
+        }
+
+        void cancelAttempts() {
+            final List<Attempt> running;
+            synchronized (this) {
+                running = List.copyOf(attempts);
+            }
+            for (Attempt attempt : running) {
+                attempt.cancel(true);
+            }
+        }
+
+        private final class Attempt extends FutureTask<T> {
+            private final long startNanos = System.nanoTime();
+
+            Attempt() {
+                super(callable);
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    final T value = get();
+                    stats.record(System.nanoTime() - startNanos);
+                    result.complete(value);
+                } catch (ExecutionException e) {
+                    // hedging reduces latency, it does not retry failures
+                    synchronized (HedgedTask.this) {
+                        if (--running > 0) {
+                            return;
+                        }
+                    }
+                    result.completeExceptionally(e.getCause());
+                } catch (InterruptedException e) {
+                    // not possible once done
+                }
+            }
+        }
+    }
+}
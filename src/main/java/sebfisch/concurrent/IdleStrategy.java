@@ -0,0 +1,40 @@
+package sebfisch.concurrent;
+
+/**
+ * What a worker does while its queue is empty.
+ *
+ * Spinning keeps the worker on its core, so it picks up the next task
+ * without the latency of being unparked, at the cost of burning CPU time.
+ * Parking frees the core, but every wakeup goes through the scheduler.
+ */
+public enum IdleStrategy {
+    /** Spin until a task arrives. */
+    BUSY_SPIN,
+    /** Spin for a while, then yield the processor between checks. */
+    SPIN_YIELD,
+    /** Spin for a while, then park until a task arrives. */
+    SPIN_PARK,
+    /** Park until a task arrives. */
+    PARK;
+
+    static final int SPIN_ROUNDS = 1 << 10;
+
+    /**
+     * Returns whether a worker that has found its queue empty the given
+     * number of times in a row should park.
+     */
+    boolean shouldPark(int idleRounds) {
+        return this == PARK || this == SPIN_PARK && idleRounds >= SPIN_ROUNDS;
+    }
+
+    /**
+     * Waits briefly without parking.
+     */
+    void pause(int idleRounds) {
+        if (this == SPIN_YIELD && idleRounds >= SPIN_ROUNDS) {
+            Thread.yield();
+        } else {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package sebfisch.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor service that runs tasks with another executor service and records
+ * them in {@link ExecutorMetrics}.
+ *
+ * Futures returned by {@code submit} count as failed if their task throws an
+ * exception. The metrics are published as an MXBean with the given name until
+ * the executor is closed.
+ */
+public class InstrumentedExecutorService extends AbstractExecutorService {
+    private final ExecutorService delegate;
+    private final ExecutorMetrics metrics = new ExecutorMetrics();
+
+    public InstrumentedExecutorService(ExecutorService delegate) {
+        this.delegate = delegate;
+    }
+
+    public InstrumentedExecutorService(ExecutorService delegate, String name) {
+        this(delegate);
+        metrics.register(name);
+    }
+
+    public ExecutorMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        metrics.execute(delegate, task);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new InstrumentedFuture<>(callable);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable task, T value) {
+        return new InstrumentedFuture<>(task, value);
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        final List<Runnable> remaining = new ArrayList<>();
+        for (Runnable task : delegate.shutdownNow()) {
+            remaining.add(metrics.unwrap(task));
+        }
+        return remaining;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Waits for termination of the executor and unregisters its metrics.
+     */
+    @Override
+    public void close() {
+        try {
+            super.close();
+        } finally {
+            metrics.unregister();
+        }
+    }
+
+    private final class InstrumentedFuture<T> extends FutureTask<T> {
+        InstrumentedFuture(Callable<T> callable) {
+            super(callable);
+        }
+
+        InstrumentedFuture(Runnable task, T value) {
+            super(task, value);
+        }
+
+        @Override
+        protected void setException(Throwable failure) {
+            metrics.taskFailed();
+            super.setException(failure);
+        }
+    }
+}
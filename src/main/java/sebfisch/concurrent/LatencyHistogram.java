@@ -0,0 +1,89 @@
+package sebfisch.concurrent;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Histogram of durations in nanoseconds with a bounded relative error, in
+ * the style of HdrHistogram.
+ *
+ * Values below 64 are counted exactly. Larger values are counted in buckets
+ * that keep their six most significant bits, so the recorded value is at
+ * most about 3% larger than the actual value. Recording is wait-free and
+ * does not allocate.
+ */
+final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * HALF_SUB_BUCKET_COUNT + SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    void record(long nanos) {
+        final long value = Math.max(0, nanos);
+        counts.getAndIncrement(indexOf(value));
+        max.accumulate(value);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final int shift = Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * HALF_SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    // the largest value counted in the bucket with the given index
+    static long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int shift = index / HALF_SUB_BUCKET_COUNT - 1;
+        final long subBucket = index - shift * HALF_SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    long count() {
+        long count = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            count += counts.get(index);
+        }
+        return count;
+    }
+
+    long max() {
+        return max.get();
+    }
+
+    /**
+     * Returns a value that is at least as large as the given percentage of
+     * recorded values, or zero if nothing has been recorded.
+     */
+    long percentile(double percent) {
+        final long count = count();
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percent / 100 * count));
+        long seen = 0;
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            seen += counts.get(index);
+            if (seen >= rank) {
+                return Math.min(highestValueAt(index), max());
+            }
+        }
+        return max();
+    }
+
+    /**
+     * Discards all recorded values. Values recorded concurrently may be lost.
+     */
+    void reset() {
+        for (int index = 0; index < BUCKET_COUNT; index++) {
+            counts.set(index, 0);
+        }
+        max.reset();
+    }
+}
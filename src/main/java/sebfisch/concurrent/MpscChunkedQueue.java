@@ -0,0 +1,274 @@
+package sebfisch.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.List;
+
+/**
+ * Unbounded lock-free queue for many producers and a single consumer.
+ *
+ * Elements are stored in linked chunks of fixed size, so adding an element
+ * does not allocate a node. Producers claim a slot by incrementing the claim
+ * counter of the last chunk and then store their element into it. Only one
+ * thread at a time may call {@link #poll()}.
+ *
+ * After {@link #close()}, all further calls to {@link #offer(Object)} fail
+ * and the consumer can drain the elements that were added before.
+ */
+final class MpscChunkedQueue<E> extends MpscChunkedQueuePad2 {
+    static final int CHUNK_SIZE = 1024;
+
+    private static final int CLOSED = 1 << 30;
+    private static final Chunk CLOSED_CHUNK = new Chunk();
+
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private volatile boolean isClosed = false;
+
+    MpscChunkedQueue() {
+        Chunk first = new Chunk();
+        tail = first;
+        head = first;
+    }
+
+    /**
+     * Adds an element to the end of the queue unless it has been closed.
+     */
+    boolean offer(E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        Chunk chunk = tail;
+        while (true) {
+            int index = chunk.claim(1);
+            if ((index & CLOSED) != 0) {
+                return false;
+            }
+            if (index < CHUNK_SIZE) {
+                SLOT.setRelease(chunk.slots, index, element);
+                return true;
+            }
+            Chunk next = chunk.appendNext();
+            if (next == CLOSED_CHUNK) {
+                return false;
+            }
+            casTail(chunk, next);
+            chunk = next;
+        }
+    }
+
+    /**
+     * Adds the given elements to the end of the queue in order, claiming the
+     * slots for as many of them as fit into the last chunk at once. Returns
+     * the number of elements added, which is only less than the number of
+     * given elements if the queue has been closed in between.
+     */
+    int offerAll(List<? extends E> elements) {
+        for (E element : elements) {
+            if (element == null) {
+                throw new NullPointerException();
+            }
+        }
+        int offered = 0;
+        Chunk chunk = tail;
+        while (offered < elements.size()) {
+            int count = Math.min(elements.size() - offered, CHUNK_SIZE);
+            int index = chunk.claim(count);
+            if ((index & CLOSED) != 0) {
+                return offered;
+            }
+            if (index < CHUNK_SIZE) {
+                int stored = Math.min(count, CHUNK_SIZE - index);
+                for (int i = 0; i < stored; i++) {
+                    SLOT.setRelease(chunk.slots, index + i, elements.get(offered + i));
+                }
+                offered += stored;
+                if (offered == elements.size()) {
+                    return offered;
+                }
+            }
+            // the chunk is full, claims beyond its end are ignored
+            Chunk next = chunk.appendNext();
+            if (next == CLOSED_CHUNK) {
+                return offered;
+            }
+            casTail(chunk, next);
+            chunk = next;
+        }
+        return offered;
+    }
+
+    /**
+     * Removes the first element or returns {@code null} if the queue is empty.
+     * Must only be called by one thread at a time.
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        if (headIndex == CHUNK_SIZE) {
+            Chunk next = head.next;
+            if (next == null || next == CLOSED_CHUNK) {
+                return null;
+            }
+            head = next;
+            headIndex = 0;
+        }
+        Object element = SLOT.getAcquire(head.slots, headIndex);
+        if (element == null) {
+            if (head.claimedBeforeClose() <= headIndex) {
+                return null;
+            }
+            // a producer has claimed the slot but not yet stored its element
+            do {
+                Thread.onSpinWait();
+                element = SLOT.getAcquire(head.slots, headIndex);
+            } while (element == null);
+        }
+        head.slots[headIndex] = null;
+        headIndex++;
+        return (E) element;
+    }
+
+    /**
+     * Returns whether no element has been claimed behind the consumer
+     * position. Sees all offers whose claim happened before the call, even if
+     * they have not yet stored their element. Must only be called by the
+     * thread that may call {@link #poll()}.
+     */
+    boolean isEmpty() {
+        Chunk chunk = head;
+        int index = headIndex;
+        if (index == CHUNK_SIZE) {
+            chunk = chunk.next;
+            if (chunk == null || chunk == CLOSED_CHUNK) {
+                return true;
+            }
+            index = 0;
+        }
+        return chunk.claimedBeforeClose() <= index;
+    }
+
+    /**
+     * Rejects all subsequent offers. Elements offered before remain in the
+     * queue.
+     */
+    void close() {
+        Chunk chunk = tail;
+        while (true) {
+            chunk.markClosed();
+            Chunk next = chunk.closeNext();
+            if (next == CLOSED_CHUNK) {
+                break;
+            }
+            chunk = next;
+        }
+        isClosed = true;
+    }
+
+    boolean isClosed() {
+        return isClosed;
+    }
+
+    static final class Chunk {
+        private static final VarHandle CLAIMED;
+        private static final VarHandle NEXT;
+
+        static {
+            try {
+                MethodHandles.Lookup lookup = MethodHandles.lookup();
+                CLAIMED = lookup.findVarHandle(Chunk.class, "claimed", int.class);
+                NEXT = lookup.findVarHandle(Chunk.class, "next", Chunk.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        final Object[] slots = new Object[CHUNK_SIZE];
+        private volatile int claimed = 0;
+        private volatile int claimedBeforeClose = -1;
+        volatile Chunk next = null;
+
+        int claim(int count) {
+            return (int) CLAIMED.getAndAdd(this, count);
+        }
+
+        /**
+         * Returns the number of claims that were made before the chunk was
+         * closed. Failed claims after closing are not counted.
+         */
+        int claimedBeforeClose() {
+            int claimed = this.claimed;
+            if ((claimed & CLOSED) == 0) {
+                return claimed;
+            }
+            int count;
+            while ((count = claimedBeforeClose) < 0) {
+                Thread.onSpinWait(); // markClosed has not yet published the count
+            }
+            return count;
+        }
+
+        void markClosed() {
+            int claimed = (int) CLAIMED.getAndBitwiseOr(this, CLOSED);
+            if ((claimed & CLOSED) == 0) {
+                claimedBeforeClose = claimed;
+            }
+        }
+
+        Chunk appendNext() {
+            Chunk next = this.next;
+            if (next == null) {
+                Chunk fresh = new Chunk();
+                next = (Chunk) NEXT.compareAndExchange(this, null, fresh);
+                if (next == null) {
+                    next = fresh;
+                }
+            }
+            return next;
+        }
+
+        Chunk closeNext() {
+            Chunk next = (Chunk) NEXT.compareAndExchange(this, null, CLOSED_CHUNK);
+            return next == null ? CLOSED_CHUNK : next;
+        }
+    }
+}
+
+// The following classes only separate the fields written by producers from
+// those written by the consumer by at least one cache line, so that both sides
+// do not invalidate each other's caches.
+
+abstract class MpscChunkedQueuePad0 {
+    long p00, p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class MpscChunkedQueueProducerFields extends MpscChunkedQueuePad0 {
+    private static final VarHandle TAIL;
+
+    static {
+        try {
+            TAIL = MethodHandles.lookup()
+                    .findVarHandle(MpscChunkedQueueProducerFields.class, "tail", MpscChunkedQueue.Chunk.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    volatile MpscChunkedQueue.Chunk tail;
+
+    void casTail(MpscChunkedQueue.Chunk expected, MpscChunkedQueue.Chunk next) {
+        TAIL.compareAndSet(this, expected, next);
+    }
+}
+
+abstract class MpscChunkedQueuePad1 extends MpscChunkedQueueProducerFields {
+    long p10, p11, p12, p13, p14, p15, p16, p17;
+}
+
+abstract class MpscChunkedQueueConsumerFields extends MpscChunkedQueuePad1 {
+    MpscChunkedQueue.Chunk head;
+    int headIndex = 0;
+}
+
+abstract class MpscChunkedQueuePad2 extends MpscChunkedQueueConsumerFields {
+    long p20, p21, p22, p23, p24, p25, p26, p27;
+}
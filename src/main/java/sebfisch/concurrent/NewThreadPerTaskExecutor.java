@@ -1,76 +1,359 @@
 package sebfisch.concurrent;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class NewThreadPerTaskExecutor implements Executor {
-    private boolean isShutdown = false;
-    private final List<Thread> activeWorkers = new ArrayList<>();
+    /**
+     * What to do with a task when a concurrency limit is reached.
+     */
+    public enum Overflow {
+        /** Block the submitting thread until the task can be started. */
+        BLOCK,
+        /** Queue the task and start it when another task has finished. */
+        QUEUE,
+        /** Throw a {@link RejectedExecutionException}. */
+        REJECT
+    }
+
+    // sign bit: shutdown, remaining bits: accepted tasks that have not
+    // finished yet, including queued ones
+    private static final int SHUTDOWN = Integer.MIN_VALUE;
+    private final AtomicInteger state = new AtomicInteger();
+    private volatile boolean isStopped = false;
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    // rejected tasks also bring the count back to zero after termination
+    private final AtomicBoolean isTerminationReported = new AtomicBoolean();
+    private final Set<Thread> activeWorkers = ConcurrentHashMap.newKeySet();
+    private final ThreadFactory threadFactory;
+    // bulkhead state is guarded by the executor monitor
+    private final Bulkhead globalBulkhead;
+    private final Map<String, Bulkhead> bulkheads = new ConcurrentHashMap<>();
+
+    public NewThreadPerTaskExecutor() {
+        this(Thread::new);
+    }
+
+    public NewThreadPerTaskExecutor(ThreadFactory threadFactory) {
+        this.threadFactory = threadFactory;
+        this.globalBulkhead = null;
+    }
+
+    /**
+     * Creates an executor that runs at most {@code maxConcurrency} tasks at
+     * the same time and handles further tasks as specified by
+     * {@code overflow}.
+     */
+    public NewThreadPerTaskExecutor(ThreadFactory threadFactory, int maxConcurrency, Overflow overflow) {
+        this.threadFactory = threadFactory;
+        this.globalBulkhead = new Bulkhead(maxConcurrency, overflow);
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each task.
+     */
+    public static NewThreadPerTaskExecutor newVirtualThreadPerTaskExecutor() {
+        return new NewThreadPerTaskExecutor(Thread.ofVirtual().factory());
+    }
+
+    /**
+     * Limits the number of tasks submitted with the given key that run at the
+     * same time. These tasks are also subject to the global limit, if any.
+     */
+    public void addBulkhead(String key, int maxConcurrency, Overflow overflow) {
+        if (bulkheads.putIfAbsent(key, new Bulkhead(maxConcurrency, overflow)) != null) {
+            throw new IllegalStateException("Bulkhead %s already exists".formatted(key));
+        }
+    }
 
     @Override
-    public synchronized void execute(Runnable task) {
-        if (isShutdown) {
-            throw new RejectedExecutionException("Executor has been shut down");
+    public void execute(Runnable task) {
+        admit(new PendingTask(TaskEvents.traced(this, task), pathOf(null)));
+    }
+
+    /**
+     * Executes the task within the limit of the bulkhead with the given key.
+     */
+    public void execute(String key, Runnable task) {
+        final Bulkhead bulkhead = bulkheads.get(key);
+        if (bulkhead == null) {
+            throw new IllegalArgumentException("No bulkhead for key %s".formatted(key));
         }
-        Thread worker = new Thread(() -> runTask(task));
-        activeWorkers.add(worker);
-        worker.start();
+        admit(new PendingTask(TaskEvents.traced(this, task), pathOf(bulkhead)));
     }
 
     public <T> CompletableFuture<T> submit(Callable<T> callable) {
         CompletableFuture<T> future = new CompletableFuture<>();
-        execute(() -> {
+        execute(completing(future, callable));
+        return future;
+    }
+
+    public <T> CompletableFuture<T> submit(String key, Callable<T> callable) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        execute(key, completing(future, callable));
+        return future;
+    }
+
+    private static <T> Runnable completing(CompletableFuture<T> future, Callable<T> callable) {
+        return () -> {
             try {
                 future.complete(callable.call());
             } catch (Exception exception) {
                 future.completeExceptionally(exception);
             }
-        });
-        return future;
+        };
+    }
+
+    private List<Bulkhead> pathOf(Bulkhead bulkhead) {
+        if (globalBulkhead == null) {
+            return bulkhead == null ? List.of() : List.of(bulkhead);
+        }
+        return bulkhead == null ? List.of(globalBulkhead) : List.of(bulkhead, globalBulkhead);
     }
 
-    private void runTask(Runnable task) {
+    private void admit(PendingTask pending) {
+        if (state.getAndIncrement() < 0) {
+            finishTask();
+            final RejectedExecutionException exception = new RejectedExecutionException("Executor has been shut down");
+            TaskEvents.rejected(this, pending.task, exception);
+            throw exception;
+        }
         try {
-            task.run();
+            if (pending.path.isEmpty()) {
+                start(pending);
+            } else {
+                synchronized (this) {
+                    if (acquirePermits(pending, false)) {
+                        start(pending);
+                    }
+                }
+            }
+        } catch (RuntimeException exception) {
+            if (!pending.path.isEmpty()) {
+                synchronized (this) {
+                    releasePermits(pending);
+                }
+            }
+            finishTask();
+            if (exception instanceof RejectedExecutionException rejected) {
+                TaskEvents.rejected(this, pending.task, rejected);
+            }
+            throw exception;
+        }
+        TaskEvents.enqueued(this, TaskEvents.unwrap(pending.task));
+    }
+
+    private void finishTask() {
+        if (state.decrementAndGet() == SHUTDOWN) {
+            terminate();
+        }
+    }
+
+    private void terminate() {
+        if (isTerminationReported.compareAndSet(false, true)) {
+            terminated.countDown();
+            TaskEvents.terminated(this);
+        }
+    }
+
+    /**
+     * Acquires the permits of all bulkheads on the path of the given task.
+     * Returns false if the task has been queued. Queued tasks that are
+     * resumed later are queued again instead of blocking or being rejected,
+     * because there is no caller to block or reject.
+     * Must be called while holding the monitor.
+     */
+    private boolean acquirePermits(PendingTask pending, boolean isResumed) {
+        while (pending.acquired < pending.path.size()) {
+            final Bulkhead bulkhead = pending.path.get(pending.acquired);
+            if (bulkhead.available > 0) {
+                bulkhead.available--;
+                pending.acquired++;
+                continue;
+            }
+            switch (isResumed ? Overflow.QUEUE : bulkhead.overflow) {
+                case QUEUE -> {
+                    bulkhead.queue.add(pending);
+                    return false;
+                }
+                case REJECT -> throw new RejectedExecutionException("Concurrency limit reached");
+                case BLOCK -> {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("Interrupted while waiting for a permit");
+                    }
+                    if (isShutdown()) {
+                        throw new RejectedExecutionException("Executor has been shut down");
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    // must be called while holding the monitor
+    private void releasePermits(PendingTask pending) {
+        while (pending.acquired > 0) {
+            pending.acquired--;
+            final Bulkhead bulkhead = pending.path.get(pending.acquired);
+            final PendingTask next = bulkhead.queue.poll();
+            if (next == null) {
+                bulkhead.available++;
+            } else {
+                // hand the permit over to the next queued task
+                next.acquired++;
+                resume(next);
+            }
+        }
+        notifyAll();
+    }
+
+    private void resume(PendingTask pending) {
+        try {
+            if (acquirePermits(pending, true)) {
+                start(pending);
+            }
+        } catch (RuntimeException exception) {
+            // there is no caller to report the failure to
+            System.err.println(exception.getMessage());
+            releasePermits(pending);
+            finishTask();
+        }
+    }
+
+    private void start(PendingTask pending) {
+        Thread worker = threadFactory.newThread(() -> runTask(pending));
+        if (worker == null) {
+            throw new RejectedExecutionException("Thread factory did not create a thread");
+        }
+        activeWorkers.add(worker);
+        try {
+            worker.start();
+        } catch (RuntimeException | Error exception) {
+            // the worker never runs, so it would never remove itself
+            activeWorkers.remove(worker);
+            throw exception;
+        }
+        if (isStopped) {
+            // shutdownNow may have missed the new worker
+            worker.interrupt();
+        }
+    }
+
+    private void runTask(PendingTask pending) {
+        try {
+            pending.task.run();
         } finally {
-            synchronized (this) {
-                activeWorkers.remove(Thread.currentThread());
-                if (isTerminated()) {
-                    notifyAll();
+            activeWorkers.remove(Thread.currentThread());
+            if (!pending.path.isEmpty()) {
+                synchronized (this) {
+                    releasePermits(pending);
                 }
             }
+            finishTask();
         }
     }
 
-    public synchronized boolean isShutdown() {
-        return isShutdown;
+    public boolean isShutdown() {
+        return state.get() < 0;
     }
 
-    public synchronized void shutdown() {
-        isShutdown = true;
-        if (isTerminated()) {
-            notifyAll();
+    public void shutdown() {
+        final int previous = state.getAndUpdate(s -> s | SHUTDOWN);
+        if (previous >= 0) {
+            TaskEvents.shutdown(this);
+        }
+        if (previous == 0) {
+            terminate();
+        }
+        synchronized (this) {
+            notifyAll(); // reject callers blocked on a concurrency limit
         }
     }
 
-    public synchronized void shutdownNow() {
+    /**
+     * Interrupts all running tasks and returns the queued tasks, which will
+     * not be started.
+     */
+    public List<Runnable> shutdownNow() {
+        isStopped = true;
         shutdown();
+        final List<PendingTask> queued = new ArrayList<>();
+        synchronized (this) {
+            for (Bulkhead bulkhead : bulkheads.values()) {
+                bulkhead.drainTo(queued);
+            }
+            if (globalBulkhead != null) {
+                globalBulkhead.drainTo(queued);
+            }
+            for (PendingTask pending : queued) {
+                // all queues are empty, so permits are not handed over
+                while (pending.acquired > 0) {
+                    pending.path.get(--pending.acquired).available++;
+                }
+            }
+        }
+        final List<Runnable> queuedTasks = new ArrayList<>();
+        for (PendingTask pending : queued) {
+            queuedTasks.add(TaskEvents.unwrap(pending.task));
+            finishTask();
+        }
         for (Thread worker : activeWorkers) {
             worker.interrupt();
         }
+        return queuedTasks;
     }
 
-    public synchronized boolean isTerminated() {
-        return isShutdown && activeWorkers.isEmpty();
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
     }
 
-    public synchronized void awaitTermination() throws InterruptedException {
-        while (!isTerminated()) {
-            wait();
+    public void awaitTermination() throws InterruptedException {
+        terminated.await();
+    }
+
+    private static class PendingTask {
+        final Runnable task;
+        final List<Bulkhead> path;
+        int acquired = 0;
+
+        PendingTask(Runnable task, List<Bulkhead> path) {
+            this.task = task;
+            this.path = path;
+        }
+    }
+
+    private static class Bulkhead {
+        final Overflow overflow;
+        int available;
+        final Queue<PendingTask> queue = new ArrayDeque<>();
+
+        Bulkhead(int maxConcurrency, Overflow overflow) {
+            if (maxConcurrency < 1) {
+                throw new IllegalArgumentException("Concurrency limit must be positive");
+            }
+            this.available = maxConcurrency;
+            this.overflow = overflow;
+        }
+
+        void drainTo(List<PendingTask> tasks) {
+            tasks.addAll(queue);
+            queue.clear();
         }
     }
 }
@@ -0,0 +1,113 @@
+package sebfisch.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor service with a fixed number of single-thread shards.
+ *
+ * Tasks submitted with the same key always run on the same shard, so they
+ * run one after another in submission order. Tasks with different keys may
+ * run in parallel on different shards. Tasks without a key run on a random
+ * shard.
+ */
+public class PartitionedExecutorService extends AbstractExecutorService {
+    private final List<SingleThreadExecutorService> shards = new ArrayList<>();
+
+    public PartitionedExecutorService(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be positive");
+        }
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new SingleThreadExecutorService());
+        }
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Returns the index of the shard that runs tasks with the given key.
+     */
+    public int shardOf(Object key) {
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shards.size());
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        shards.get(ThreadLocalRandom.current().nextInt(shards.size())).execute(task);
+    }
+
+    /**
+     * Executes the task after all tasks previously submitted with the same
+     * key.
+     */
+    public void execute(Object key, Runnable task) {
+        shards.get(shardOf(key)).execute(task);
+    }
+
+    public <T> Future<T> submit(Object key, Callable<T> callable) {
+        RunnableFuture<T> future = newTaskFor(callable);
+        execute(key, future);
+        return future;
+    }
+
+    public Future<?> submit(Object key, Runnable task) {
+        RunnableFuture<Void> future = newTaskFor(task, null);
+        execute(key, future);
+        return future;
+    }
+
+    /**
+     * Returns an estimate of the number of tasks waiting in each shard, in
+     * shard order.
+     */
+    public long[] getQueuedTaskCounts() {
+        return shards.stream()
+                .mapToLong(SingleThreadExecutorService::getQueuedTaskCount)
+                .toArray();
+    }
+
+    @Override
+    public void shutdown() {
+        shards.forEach(SingleThreadExecutorService::shutdown);
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        final List<Runnable> remainingTasks = new ArrayList<>();
+        for (SingleThreadExecutorService shard : shards) {
+            remainingTasks.addAll(shard.shutdownNow());
+        }
+        return remainingTasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shards.stream().allMatch(SingleThreadExecutorService::isShutdown);
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shards.stream().allMatch(SingleThreadExecutorService::isTerminated);
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (SingleThreadExecutorService shard : shards) {
+            if (!shard.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
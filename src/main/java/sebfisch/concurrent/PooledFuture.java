@@ -0,0 +1,168 @@
+package sebfisch.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Future obtained from a {@link FuturePool} that is reused for another task
+ * once its result has been taken with {@link #take()}.
+ *
+ * Only one thread may wait for the result, and the future must not be used
+ * at all after calling {@link #take()}. Tasks can only be cancelled before
+ * they start.
+ */
+public final class PooledFuture<T> implements RunnableFuture<T> {
+    private static final int NEW = 0;
+    private static final int RUNNING = 1;
+    private static final int SUCCESS = 2;
+    private static final int FAILED = 3;
+    private static final int CANCELLED = 4;
+
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(PooledFuture.class, "state", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final FuturePool pool;
+    private Callable<? extends T> callable;
+    // written before the state becomes SUCCESS or FAILED, read after
+    private Object outcome;
+    private volatile int state = NEW;
+    private volatile Thread waiter;
+
+    PooledFuture(FuturePool pool) {
+        this.pool = pool;
+    }
+
+    void prepare(Callable<? extends T> callable) {
+        this.callable = callable;
+    }
+
+    void reset() {
+        callable = null;
+        outcome = null;
+        waiter = null;
+        state = NEW;
+    }
+
+    @Override
+    public void run() {
+        if (!STATE.compareAndSet(this, NEW, RUNNING)) {
+            return; // cancelled
+        }
+        try {
+            outcome = callable.call();
+            state = SUCCESS;
+        } catch (Throwable failure) {
+            outcome = failure;
+            state = FAILED;
+        }
+        final Thread waiting = waiter;
+        if (waiting != null) {
+            LockSupport.unpark(waiting);
+        }
+    }
+
+    /**
+     * Cancels the task if it has not started yet. Running tasks are never
+     * interrupted.
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (!STATE.compareAndSet(this, NEW, CANCELLED)) {
+            return false;
+        }
+        final Thread waiting = waiter;
+        if (waiting != null) {
+            LockSupport.unpark(waiting);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return state == CANCELLED;
+    }
+
+    @Override
+    public boolean isDone() {
+        return state > RUNNING;
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        awaitDone(0, false);
+        return result();
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        if (!awaitDone(unit.toNanos(timeout), true)) {
+            throw new TimeoutException();
+        }
+        return result();
+    }
+
+    /**
+     * Waits for the result and hands this future back to its pool. Cancelled
+     * futures are not recycled, because the executor may still hold them.
+     */
+    public T take() throws InterruptedException, ExecutionException {
+        awaitDone(0, false);
+        try {
+            return result();
+        } finally {
+            if (state != CANCELLED) {
+                pool.recycle(this);
+            }
+        }
+    }
+
+    private boolean awaitDone(long nanos, boolean isTimed) throws InterruptedException {
+        if (isDone()) {
+            return true;
+        }
+        final long deadline = System.nanoTime() + nanos;
+        waiter = Thread.currentThread();
+        try {
+            while (!isDone()) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                if (!isTimed) {
+                    LockSupport.park(this);
+                } else {
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    LockSupport.parkNanos(this, remaining);
+                }
+            }
+            return true;
+        } finally {
+            waiter = null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private T result() throws ExecutionException {
+        return switch (state) {
+            case SUCCESS -> (T) outcome;
+            case FAILED -> throw new ExecutionException((Throwable) outcome);
+            default -> throw new CancellationException();
+        };
+    }
+}
@@ -0,0 +1,9 @@
+package sebfisch.concurrent;
+
+/**
+ * Task with a priority for a {@link PrioritySingleThreadExecutorService}.
+ * Tasks with a higher priority run first.
+ */
+public interface Prioritized {
+    int priority();
+}
@@ -0,0 +1,273 @@
+package sebfisch.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single-thread executor service that runs queued tasks with a higher
+ * priority first and tasks with the same priority in submission order.
+ *
+ * Waiting tasks age: a task is ordered as if it had been submitted one aging
+ * interval earlier for every priority level, so a task with a low priority
+ * only waits for more urgent tasks submitted within a bounded time after it.
+ * The priority of a task is given explicitly or by implementing
+ * {@link Prioritized}.
+ */
+public class PrioritySingleThreadExecutorService extends AbstractExecutorService {
+    public static final int DEFAULT_PRIORITY = 0;
+    public static final Duration DEFAULT_AGING_INTERVAL = Duration.ofMillis(10);
+
+    private Thread worker;
+    private final PriorityQueue<QueuedTask> taskQueue = new PriorityQueue<>();
+    private final long agingNanos;
+    private final long origin = System.nanoTime();
+    private long submitted = 0;
+    private boolean isShutdown = false;
+    private boolean isTerminated = false;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition terminated = lock.newCondition();
+    private final Condition taskAvailable = lock.newCondition();
+
+    public PrioritySingleThreadExecutorService() {
+        this(DEFAULT_AGING_INTERVAL);
+    }
+
+    /**
+     * Creates an executor in which a waiting task catches up one priority
+     * level per {@code agingInterval}.
+     */
+    public PrioritySingleThreadExecutorService(Duration agingInterval) {
+        if (agingInterval.isNegative() || agingInterval.isZero()) {
+            throw new IllegalArgumentException("Aging interval must be positive");
+        }
+        agingNanos = agingInterval.toNanos();
+        worker = new Thread(this::runQueuedTasks);
+        worker.start();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        execute(task, task instanceof Prioritized prioritized ? prioritized.priority() : DEFAULT_PRIORITY);
+    }
+
+    public void execute(Runnable task, int priority) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        lock.lock();
+        try {
+            if (isShutdown) {
+                throw new RejectedExecutionException("Executor has been shut down");
+            }
+            taskQueue.add(new QueuedTask(task, rank(priority), submitted++));
+            taskAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public <T> Future<T> submit(Callable<T> callable, int priority) {
+        final RunnableFuture<T> future = newTaskFor(callable);
+        execute(future, priority);
+        return future;
+    }
+
+    public Future<?> submit(Runnable task, int priority) {
+        final RunnableFuture<Void> future = newTaskFor(task, null);
+        execute(future, priority);
+        return future;
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        if (callable instanceof Prioritized prioritized) {
+            return new PrioritizedFutureTask<>(callable, prioritized.priority());
+        }
+        return super.newTaskFor(callable);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable task, T value) {
+        if (task instanceof Prioritized prioritized) {
+            return new PrioritizedFutureTask<>(task, value, prioritized.priority());
+        }
+        return super.newTaskFor(task, value);
+    }
+
+    // the submission time moved back by one aging interval per priority level
+    private long rank(int priority) {
+        final long now = System.nanoTime() - origin;
+        try {
+            return Math.subtractExact(now, Math.multiplyExact(priority, agingNanos));
+        } catch (ArithmeticException e) {
+            return priority > 0 ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+    }
+
+    private void runQueuedTasks() {
+        while (true) {
+            final Runnable task;
+            try {
+                task = getQueuedTask();
+            } catch (InterruptedException e) {
+                if (isShutdown() && isQueueEmpty()) {
+                    break;
+                }
+                continue;
+            }
+            try {
+                task.run();
+            } catch (Exception exception) {
+                System.err.println(exception.getMessage());
+            }
+            // do not let a task interrupting itself affect the next one
+            Thread.interrupted();
+        }
+        lock.lock();
+        try {
+            isTerminated = true;
+            terminated.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isQueueEmpty() {
+        lock.lock();
+        try {
+            return taskQueue.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Runnable getQueuedTask() throws InterruptedException {
+        lock.lock();
+        try {
+            while (taskQueue.isEmpty()) {
+                if (isShutdown) {
+                    throw new InterruptedException();
+                }
+                taskAvailable.await();
+            }
+            return taskQueue.poll().task;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isShutdown() {
+        lock.lock();
+        try {
+            return isShutdown;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        lock.lock();
+        try {
+            isShutdown = true;
+            taskAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the tasks that have not been started, in the order in which
+     * they would have run.
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        lock.lock();
+        try {
+            isShutdown = true;
+            final List<Runnable> remainingTasks = new ArrayList<>(taskQueue.size());
+            while (!taskQueue.isEmpty()) {
+                remainingTasks.add(taskQueue.poll().task);
+            }
+            worker.interrupt();
+            return remainingTasks;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isTerminated() {
+        lock.lock();
+        try {
+            return isTerminated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = unit.toNanos(timeout);
+            while (!isTerminated && nanos > 0) {
+                nanos = terminated.awaitNanos(nanos);
+            }
+            return isTerminated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static final class QueuedTask implements Comparable<QueuedTask> {
+        final Runnable task;
+        final long rank;
+        final long sequence;
+
+        QueuedTask(Runnable task, long rank, long sequence) {
+            this.task = task;
+            this.rank = rank;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(QueuedTask other) {
+            final int byRank = Long.compare(rank, other.rank);
+            return byRank != 0 ? byRank : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static final class PrioritizedFutureTask<T> extends FutureTask<T> implements Prioritized {
+        private final int priority;
+
+        PrioritizedFutureTask(Callable<T> callable, int priority) {
+            super(callable);
+            this.priority = priority;
+        }
+
+        PrioritizedFutureTask(Runnable task, T value, int priority) {
+            super(task, value);
+            this.priority = priority;
+        }
+
+        @Override
+        public int priority() {
+            return priority;
+        }
+    }
+}
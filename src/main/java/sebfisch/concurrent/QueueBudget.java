@@ -0,0 +1,178 @@
+package sebfisch.concurrent;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps track of the room left in a task queue according to a
+ * {@link QueueLimit}.
+ *
+ * Producers reserve room before adding a task to the queue, and the consumer
+ * frees it when it takes the task out of the queue. Reserving room only
+ * takes a lock when producers have to block.
+ */
+final class QueueBudget {
+    private final QueueLimit limit;
+    // removes the oldest entry from the queue or returns null if it is empty
+    private final Supplier<Runnable> oldestEntry;
+    private final AtomicLong used = new AtomicLong();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private volatile boolean isClosed = false;
+
+    QueueBudget(QueueLimit limit, Supplier<Runnable> oldestEntry) {
+        this.limit = limit;
+        this.oldestEntry = oldestEntry;
+    }
+
+    /**
+     * Reserves room for the given task and returns the entry to be queued, or
+     * returns {@code null} if the caller should run the task itself.
+     *
+     * @throws RejectedExecutionException if the task does not fit
+     */
+    Runnable acquire(Runnable task, long weight) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        if (!limit.isBounded()) {
+            return task;
+        }
+        final long reserved = limit.isWeighted() ? weight : 1;
+        if (reserved < 0) {
+            throw new IllegalArgumentException("Task weight must not be negative");
+        }
+        if (reserved > limit.getCapacity()) {
+            throw new IllegalArgumentException("Task weight exceeds queue capacity");
+        }
+        if (!tryReserve(reserved)) {
+            switch (limit.getOverflow()) {
+                case BLOCK -> awaitReserved(reserved);
+                case CALLER_RUNS -> {
+                    return null;
+                }
+                case REJECT -> throw new RejectedExecutionException("Task queue is full");
+                case DROP_OLDEST -> dropUntilReserved(reserved);
+            }
+        }
+        return limit.isWeighted() ? new WeightedTask(task, reserved) : task;
+    }
+
+    /**
+     * Reserves room for the given task with weight one if there is some and
+     * returns the entry to be queued. Returns {@code null} if there is no
+     * room, without applying the overflow policy.
+     */
+    Runnable tryAcquire(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        if (!limit.isBounded()) {
+            return task;
+        }
+        if (!tryReserve(1)) {
+            return null;
+        }
+        return limit.isWeighted() ? new WeightedTask(task, 1) : task;
+    }
+
+    /**
+     * Frees the room reserved for a queued entry and returns its task.
+     */
+    Runnable release(Runnable entry) {
+        if (!limit.isBounded()) {
+            return entry;
+        }
+        if (entry instanceof WeightedTask weighted) {
+            free(weighted.weight);
+            return weighted.task;
+        }
+        free(1);
+        return entry;
+    }
+
+    /**
+     * Rejects all producers that are blocked or will block.
+     */
+    void close() {
+        isClosed = true;
+        synchronized (this) {
+            notifyAll();
+        }
+    }
+
+    private boolean tryReserve(long weight) {
+        while (true) {
+            final long current = used.get();
+            if (current + weight > limit.getCapacity()) {
+                return false;
+            }
+            if (used.compareAndSet(current, current + weight)) {
+                return true;
+            }
+        }
+    }
+
+    private void free(long weight) {
+        used.addAndGet(-weight);
+        // blocked producers register before checking for room again
+        if (waiters.get() > 0) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    private synchronized void awaitReserved(long weight) {
+        final long deadline = System.nanoTime() + limit.blockTimeoutNanos();
+        waiters.incrementAndGet();
+        try {
+            while (!tryReserve(weight)) {
+                if (isClosed) {
+                    throw new RejectedExecutionException("Executor has been shut down");
+                }
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new RejectedExecutionException("Timed out waiting for room in the task queue");
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for room in the task queue");
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    private void dropUntilReserved(long weight) {
+        do {
+            final Runnable oldest = oldestEntry.get();
+            if (oldest == null) {
+                // the room is reserved by tasks that are about to be queued
+                throw new RejectedExecutionException("Task queue is full");
+            }
+            if (TaskEvents.unwrap(release(oldest)) instanceof Future<?> future) {
+                future.cancel(false);
+            }
+        } while (!tryReserve(weight));
+    }
+
+    private static final class WeightedTask implements Runnable {
+        final Runnable task;
+        final long weight;
+
+        WeightedTask(Runnable task, long weight) {
+            this.task = task;
+            this.weight = weight;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+}
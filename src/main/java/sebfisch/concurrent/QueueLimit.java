@@ -0,0 +1,100 @@
+package sebfisch.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Capacity of the task queue of an executor and what to do with a task that
+ * does not fit.
+ *
+ * The capacity is either a number of tasks or a total weight declared by the
+ * callers when submitting tasks, for example the number of bytes a task
+ * keeps alive while it is queued.
+ */
+public final class QueueLimit {
+    /**
+     * What to do with a task when the queue is full.
+     */
+    public enum Overflow {
+        /** Block the submitting thread until there is room or the timeout expires. */
+        BLOCK,
+        /** Run the task in the submitting thread. */
+        CALLER_RUNS,
+        /** Throw a {@link RejectedExecutionException}. */
+        REJECT,
+        /** Discard the oldest queued tasks until there is room, cancelling them if they are futures. */
+        DROP_OLDEST
+    }
+
+    /** Queue without a capacity, which is the default of all executors. */
+    public static final QueueLimit UNBOUNDED = new QueueLimit(Long.MAX_VALUE, false, Overflow.REJECT, Long.MAX_VALUE);
+
+    private final long capacity;
+    private final boolean isWeighted;
+    private final Overflow overflow;
+    private final long blockTimeoutNanos;
+
+    private QueueLimit(long capacity, boolean isWeighted, Overflow overflow, long blockTimeoutNanos) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be positive");
+        }
+        if (overflow == null) {
+            throw new NullPointerException();
+        }
+        this.capacity = capacity;
+        this.isWeighted = isWeighted;
+        this.overflow = overflow;
+        this.blockTimeoutNanos = blockTimeoutNanos;
+    }
+
+    /**
+     * Limits the queue to {@code maxTasks} tasks. Declared task weights are
+     * ignored.
+     */
+    public static QueueLimit ofTasks(long maxTasks, Overflow overflow) {
+        return new QueueLimit(maxTasks, false, overflow, Long.MAX_VALUE);
+    }
+
+    /**
+     * Limits the total weight of queued tasks to {@code maxWeight}. Tasks
+     * submitted without a weight have weight one.
+     */
+    public static QueueLimit ofWeight(long maxWeight, Overflow overflow) {
+        return new QueueLimit(maxWeight, true, overflow, Long.MAX_VALUE);
+    }
+
+    /**
+     * Returns a copy of this limit that rejects a blocked task after the
+     * given timeout. Without a timeout, blocked tasks wait until there is
+     * room or the executor is shut down.
+     */
+    public QueueLimit withBlockTimeout(Duration timeout) {
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException("Timeout must not be negative");
+        }
+        final long nanos = timeout.compareTo(Duration.ofNanos(Long.MAX_VALUE)) < 0
+                ? timeout.toNanos()
+                : Long.MAX_VALUE;
+        return new QueueLimit(capacity, isWeighted, overflow, nanos);
+    }
+
+    public boolean isBounded() {
+        return this != UNBOUNDED;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public boolean isWeighted() {
+        return isWeighted;
+    }
+
+    public Overflow getOverflow() {
+        return overflow;
+    }
+
+    long blockTimeoutNanos() {
+        return blockTimeoutNanos;
+    }
+}
@@ -0,0 +1,209 @@
+package sebfisch.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs tasks on an executor and yields the result of the first one that
+ * succeeds, similar to a {@code StructuredTaskScope.ShutdownOnSuccess}.
+ *
+ * As soon as the winner is known, all other tasks are cancelled and their
+ * threads interrupted by the thread that decided the race, so that they can
+ * give up their threads right away. Tasks are forked with {@link #fork} and
+ * the result is obtained with {@link #join}. Closing the race cancels all
+ * tasks that are still running.
+ */
+public final class Race<T> implements AutoCloseable {
+    /**
+     * How failed tasks affect the outcome of a race.
+     */
+    public enum FailurePolicy {
+        /** The race fails only if all tasks fail, with the first failure. */
+        AWAIT_ALL,
+        /** The race fails with the first failure that precedes a success. */
+        FAIL_FAST
+    }
+
+    private final Executor executor;
+    private final FailurePolicy failurePolicy;
+    private final CompletableFuture<T> outcome = new CompletableFuture<>();
+    // guarded by this
+    private final List<Contestant> contestants = new ArrayList<>();
+    private int running = 0;
+    private boolean hasForked = false;
+    private boolean isJoined = false;
+    private Throwable firstFailure = null;
+
+    public Race(Executor executor) {
+        this(executor, FailurePolicy.AWAIT_ALL);
+    }
+
+    public Race(Executor executor, FailurePolicy failurePolicy) {
+        this.executor = executor;
+        this.failurePolicy = failurePolicy;
+    }
+
+    /**
+     * Returns the result of the first of the given tasks that succeeds and
+     * interrupts the others.
+     *
+     * @throws ExecutionException if all tasks fail, caused by the first
+     *                            failure
+     */
+    public static <T> T firstSuccessful(Executor executor, Collection<? extends Callable<? extends T>> tasks)
+            throws InterruptedException, ExecutionException {
+        try (Race<T> race = new Race<>(executor)) {
+            tasks.forEach(race::fork);
+            return race.join();
+        }
+    }
+
+    /**
+     * Starts the task as a contestant of this race. Tasks forked after the
+     * race has been decided are not started.
+     *
+     * @throws IllegalStateException if the race has already been joined
+     */
+    public void fork(Callable<? extends T> task) {
+        final Contestant contestant = new Contestant(task);
+        synchronized (this) {
+            if (isJoined) {
+                throw new IllegalStateException("Race has already been joined");
+            }
+            if (outcome.isDone()) {
+                return;
+            }
+            contestants.add(contestant);
+            running++;
+            hasForked = true;
+        }
+        try {
+            executor.execute(contestant);
+        } catch (RuntimeException exception) {
+            synchronized (this) {
+                contestants.remove(contestant);
+                running--;
+            }
+            throw exception;
+        }
+    }
+
+    /**
+     * Waits for the first successful result. No more tasks can be forked
+     * afterwards.
+     *
+     * @throws ExecutionException if the race failed according to its
+     *                            failure policy
+     */
+    public T join() throws InterruptedException, ExecutionException {
+        seal();
+        try {
+            return outcome.get();
+        } catch (InterruptedException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for the first successful result at most for the given time and
+     * closes the race if there is none by then.
+     */
+    public T join(Duration timeout) throws InterruptedException, ExecutionException, TimeoutException {
+        seal();
+        try {
+            return outcome.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException | TimeoutException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private synchronized void seal() {
+        if (!hasForked && !outcome.isDone()) {
+            throw new IllegalStateException("No task has been forked");
+        }
+        isJoined = true;
+        failIfAllFailed();
+    }
+
+    /**
+     * Cancels all tasks that are still running, interrupting their threads.
+     */
+    @Override
+    public void close() {
+        outcome.completeExceptionally(new CancellationException("Race has been closed"));
+        cancelContestants();
+    }
+
+    private void cancelContestants() {
+        final List<Contestant> losers;
+        synchronized (this) {
+            losers = List.copyOf(contestants);
+        }
+        for (Contestant loser : losers) {
+            loser.cancel(true);
+        }
+    }
+
+    private void succeeded(T result) {
+        if (outcome.complete(result)) {
+            cancelContestants();
+        }
+    }
+
+    private void failed(Throwable failure) {
+        synchronized (this) {
+            if (firstFailure == null) {
+                firstFailure = failure;
+            } else if (firstFailure != failure) {
+                firstFailure.addSuppressed(failure);
+            }
+        }
+        if (failurePolicy == FailurePolicy.FAIL_FAST && outcome.completeExceptionally(failure)) {
+            cancelContestants();
+        }
+    }
+
+    // must be called while holding the monitor
+    private void failIfAllFailed() {
+        if (isJoined && running == 0 && firstFailure != null) {
+            outcome.completeExceptionally(firstFailure);
+        }
+    }
+
+    private final class Contestant extends FutureTask<T> {
+        Contestant(Callable<? extends T> task) {
+            super(task::call);
+        }
+
+        @Override
+        protected void done() {
+            if (!isCancelled()) {
+                try {
+                    succeeded(get());
+                } catch (ExecutionException e) {
+                    failed(e.getCause());
+                } catch (InterruptedException | CancellationException e) {
+                    // not possible once done and not cancelled
+                }
+            }
+            // only after a success has been reported, so it takes precedence
+            synchronized (Race.this) {
+                running--;
+                contestants.remove(this);
+                failIfAllFailed();
+            }
+        }
+    }
+}
@@ -10,20 +10,51 @@ import java.util.concurrent.FutureTask;
 public class SingleThreadExecutor implements Executor {
     private final Thread worker;
     private final LinkedList<Runnable> taskQueue = new LinkedList<>();
+    private final QueueBudget queueBudget;
     // TODO Task 1.1: add a boolean flag to indicate shutdown
 
     public SingleThreadExecutor() {
+        this(QueueLimit.UNBOUNDED);
+    }
+
+    /**
+     * Creates an executor whose queue is bounded by the given limit.
+     */
+    public SingleThreadExecutor(QueueLimit queueLimit) {
+        queueBudget = new QueueBudget(queueLimit, this::dropQueuedTask);
         worker = new Thread(this::runQueuedTasks);
         worker.start();
     }
 
     @Override
-    public synchronized void execute(Runnable task) {
+    public void execute(Runnable task) {
+        execute(task, 1);
+    }
+
+    /**
+     * Executes the task, which counts with the given weight against a
+     * weighted queue limit.
+     */
+    public void execute(Runnable task, long weight) {
+        // may block, so must not hold the monitor
+        final Runnable entry = queueBudget.acquire(task, weight);
+        if (entry == null) {
+            task.run();
+        } else {
+            enqueue(entry);
+        }
+    }
+
+    private synchronized void enqueue(Runnable task) {
         // TODO Task 1.1: reject tasks after shutdown
         taskQueue.addLast(task);
         notifyAll();
     }
 
+    private synchronized Runnable dropQueuedTask() {
+        return taskQueue.pollFirst();
+    }
+
     public <T> Future<T> submit(Callable<T> callable) {
         FutureTask<T> future = new FutureTask<>(callable);
         execute(future);
@@ -47,7 +78,7 @@ public class SingleThreadExecutor implements Executor {
             // TODO Task 1.1: throw `InterruptedException` after shutdown
             wait();
         }
-        return taskQueue.removeFirst();
+        return queueBudget.release(taskQueue.removeFirst());
     }
 
     public synchronized void shutdown() {
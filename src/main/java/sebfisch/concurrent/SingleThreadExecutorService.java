@@ -1,116 +1,431 @@
 package sebfisch.concurrent;
 
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Condition;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 
 public class SingleThreadExecutorService extends AbstractExecutorService {
     private Thread worker;
-    private final LinkedList<Runnable> taskQueue = new LinkedList<>();
-    private boolean isShutdown = false;
+    // producers never block each other, the lock is only taken by consumers
+    private final MpscChunkedQueue<Runnable> taskQueue = new MpscChunkedQueue<>();
+    private final TaskBatch taskBatch;
+    private final QueueBudget queueBudget;
+    private final IdleStrategy idleStrategy;
+    // set by the worker before it parks, so that producers only unpark it then
+    private volatile boolean isParked = false;
+    // lifecycle states only advance, status checks never take the lock
+    private static final int RUNNING = 0;
+    private static final int SHUTDOWN = 1;
+    private static final int STOP = 2;
+    private static final int TERMINATED = 3;
+    private final AtomicInteger state = new AtomicInteger(RUNNING);
+    private final CompletableFuture<Void> termination = new CompletableFuture<>();
+    private final LongAdder acceptedTasks = new LongAdder();
+    private final LongAdder dequeuedTasks = new LongAdder();
 
     private final Lock lock = new ReentrantLock();
-    private final Condition terminated = lock.newCondition();
-    private final Condition taskAvailable = lock.newCondition();
 
     public SingleThreadExecutorService() {
+        this(TaskBatch.DEFAULT_MAX_SIZE, TaskBatch.DEFAULT_LATENCY_TARGET);
+    }
+
+    /**
+     * Creates an executor whose queue is bounded by the given limit.
+     */
+    public SingleThreadExecutorService(QueueLimit queueLimit) {
+        this(TaskBatch.DEFAULT_MAX_SIZE, TaskBatch.DEFAULT_LATENCY_TARGET, queueLimit);
+    }
+
+    /**
+     * Creates an executor whose worker waits for tasks as specified by the
+     * given idle strategy.
+     */
+    public SingleThreadExecutorService(IdleStrategy idleStrategy) {
+        this(TaskBatch.DEFAULT_MAX_SIZE, TaskBatch.DEFAULT_LATENCY_TARGET, QueueLimit.UNBOUNDED, idleStrategy);
+    }
+
+    /**
+     * Creates an executor whose worker takes up to {@code maxBatchSize} tasks
+     * from the queue at once. The batch size is reduced while running a batch
+     * takes longer than {@code batchLatencyTarget}.
+     */
+    public SingleThreadExecutorService(int maxBatchSize, Duration batchLatencyTarget) {
+        this(maxBatchSize, batchLatencyTarget, QueueLimit.UNBOUNDED);
+    }
+
+    /**
+     * Creates an executor with the given batch size and queue limit. Tasks
+     * taken into a batch no longer count against the queue limit.
+     */
+    public SingleThreadExecutorService(int maxBatchSize, Duration batchLatencyTarget, QueueLimit queueLimit) {
+        this(maxBatchSize, batchLatencyTarget, queueLimit, IdleStrategy.PARK);
+    }
+
+    public SingleThreadExecutorService(int maxBatchSize, Duration batchLatencyTarget, QueueLimit queueLimit,
+            IdleStrategy idleStrategy) {
+        this.idleStrategy = idleStrategy;
+        taskBatch = new TaskBatch(maxBatchSize, batchLatencyTarget);
+        queueBudget = new QueueBudget(queueLimit, this::dropQueuedTask);
         worker = new Thread(this::runQueuedTasks);
         worker.start();
     }
 
     @Override
     public void execute(Runnable task) {
-        lock.lock();
+        execute(task, 1);
+    }
+
+    /**
+     * Executes the task, which counts with the given weight against a
+     * weighted queue limit.
+     */
+    public void execute(Runnable task, long weight) {
+        final Runnable traced = TaskEvents.traced(this, task);
+        final Runnable entry;
         try {
-            if (isShutdown) {
+            if (isShutdown()) {
+                throw new RejectedExecutionException("Executor has been shut down");
+            }
+            entry = queueBudget.acquire(traced, weight);
+            if (entry != null && !taskQueue.offer(entry)) {
+                queueBudget.release(entry);
                 throw new RejectedExecutionException("Executor has been shut down");
             }
-            taskQueue.addLast(task);
-            taskAvailable.signal();
+        } catch (RejectedExecutionException exception) {
+            TaskEvents.rejected(this, task, exception);
+            throw exception;
+        }
+        if (entry == null) {
+            traced.run();
+            return;
+        }
+        acceptedTasks.increment();
+        TaskEvents.enqueued(this, task);
+        if (isParked) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * Executes the given tasks in order. The tasks are added to the queue
+     * with as few atomic updates as possible and the worker is woken up at
+     * most once, unless a bounded queue fills up in between. If the executor
+     * is shut down in between, the tasks added before still run and the
+     * remaining ones are rejected.
+     */
+    public void executeAll(Collection<? extends Runnable> tasks) {
+        final List<Runnable> entries = new ArrayList<>(tasks.size());
+        final List<Runnable> queuedTasks = new ArrayList<>(tasks.size());
+        try {
+            if (isShutdown()) {
+                throw new RejectedExecutionException("Executor has been shut down");
+            }
+            for (Runnable task : tasks) {
+                final Runnable traced = TaskEvents.traced(this, task);
+                Runnable entry = queueBudget.tryAcquire(traced);
+                if (entry == null) {
+                    // the worker only frees room taken by queued entries, so queue
+                    // the pending ones before blocking, dropping or running the task
+                    enqueueAll(entries, queuedTasks);
+                    entry = queueBudget.acquire(traced, 1);
+                }
+                if (entry == null) {
+                    traced.run();
+                } else {
+                    entries.add(entry);
+                    queuedTasks.add(task);
+                }
+            }
+            enqueueAll(entries, queuedTasks);
+        } catch (RejectedExecutionException exception) {
+            if (!entries.isEmpty()) {
+                try {
+                    enqueueAll(entries, queuedTasks);
+                } catch (RejectedExecutionException ignored) {
+                    // the executor has been shut down in between
+                }
+            }
+            TaskEvents.rejected(this, null, exception);
+            throw exception;
+        }
+    }
+
+    // clears the given lists after adding the entries to the queue
+    private void enqueueAll(List<Runnable> entries, List<Runnable> queuedTasks) {
+        final int offered = taskQueue.offerAll(entries);
+        acceptedTasks.add(offered);
+        for (Runnable task : queuedTasks.subList(0, offered)) {
+            TaskEvents.enqueued(this, task);
+        }
+        for (Runnable entry : entries.subList(offered, entries.size())) {
+            queueBudget.release(entry);
+        }
+        final boolean isRejected = offered < entries.size();
+        entries.clear();
+        queuedTasks.clear();
+        if (offered > 0 && isParked) {
+            LockSupport.unpark(worker);
+        }
+        if (isRejected) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+    }
+
+    /**
+     * Submits all tasks at once and waits for the last one first. The worker
+     * runs them in order, so the caller is usually woken up only once.
+     */
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        return invokeAll(tasks, false, 0);
+    }
+
+    @Override
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return invokeAll(tasks, true, unit.toNanos(timeout));
+    }
+
+    private <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, boolean isTimed, long nanos)
+            throws InterruptedException {
+        final long deadline = System.nanoTime() + nanos;
+        final List<RunnableFuture<T>> futures = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            futures.add(newTaskFor(task));
+        }
+        @SuppressWarnings("unchecked")
+        final List<Future<T>> result = (List<Future<T>>) (List<?>) futures;
+        boolean isDone = false;
+        try {
+            executeAll(futures);
+            for (int i = futures.size() - 1; i >= 0; i--) {
+                final Future<T> future = futures.get(i);
+                if (future.isDone()) {
+                    continue;
+                }
+                try {
+                    if (isTimed) {
+                        future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    } else {
+                        future.get();
+                    }
+                } catch (CancellationException | ExecutionException ignored) {
+                    // reported by the future
+                } catch (TimeoutException e) {
+                    return result;
+                }
+            }
+            isDone = true;
+            return result;
+        } finally {
+            if (!isDone) {
+                futures.forEach(future -> future.cancel(true));
+            }
+        }
+    }
+
+    /**
+     * Runs the tasks one after another as a single task on the worker and
+     * returns the result of the first one that completes successfully.
+     * Parallel attempts would not finish earlier with a single worker.
+     */
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks) throws InterruptedException, ExecutionException {
+        try {
+            return invokeAny(tasks, false, 0);
+        } catch (TimeoutException e) {
+            throw new AssertionError(e); // untimed
+        }
+    }
+
+    @Override
+    public <T> T invokeAny(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        return invokeAny(tasks, true, unit.toNanos(timeout));
+    }
+
+    private <T> T invokeAny(Collection<? extends Callable<T>> tasks, boolean isTimed, long nanos)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        final List<Callable<T>> candidates = List.copyOf(tasks);
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException();
+        }
+        final FutureTask<T> future = new FutureTask<>(() -> firstSuccessful(candidates));
+        execute(future);
+        try {
+            return isTimed ? future.get(nanos, TimeUnit.NANOSECONDS) : future.get();
+        } finally {
+            future.cancel(true);
+        }
+    }
+
+    private static <T> T firstSuccessful(List<Callable<T>> candidates) throws Exception {
+        Exception failure = null;
+        for (Callable<T> candidate : candidates) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException(); // cancelled
+            }
+            try {
+                return candidate.call();
+            } catch (Exception exception) {
+                failure = exception;
+            }
+        }
+        throw failure;
+    }
+
+    private Runnable dropQueuedTask() {
+        lock.lock();
+        try {
+            final Runnable entry = taskQueue.poll();
+            if (entry != null) {
+                dequeuedTasks.increment();
+            }
+            return entry;
         } finally {
             lock.unlock();
         }
     }
 
+    /**
+     * Returns an estimate of the number of tasks that have been accepted but
+     * not yet started.
+     */
+    public long getQueuedTaskCount() {
+        return Math.max(0, acceptedTasks.sum() - dequeuedTasks.sum());
+    }
+
     private void runQueuedTasks() {
+        int idleRounds = 0;
         while (true) {
-            try {
-                getQueuedTask().run();
-            } catch (InterruptedException e) {
-                lock.lock();
-                try {
-                    if (isShutdown) {
+            Runnable task = getQueuedTask();
+            if (task == null) {
+                if (taskQueue.isClosed()) {
+                    // tasks offered before closing may not have been visible before
+                    task = getQueuedTask();
+                    if (task == null) {
                         break;
                     }
-                } finally {
-                    lock.unlock();
+                } else {
+                    idle(idleRounds);
+                    idleRounds = Math.min(idleRounds + 1, IdleStrategy.SPIN_ROUNDS);
+                    continue;
                 }
+            }
+            idleRounds = 0;
+            dequeuedTasks.increment();
+            try {
+                task.run();
             } catch (Exception exception) {
                 System.err.println(exception.getMessage());
             }
+            // do not let a task interrupting itself affect the next one
+            Thread.interrupted();
         }
+        advanceTo(TERMINATED);
+        TaskEvents.terminated(this);
+        termination.complete(null);
+    }
+
+    private void idle(int idleRounds) {
+        if (!idleStrategy.shouldPark(idleRounds)) {
+            idleStrategy.pause(idleRounds);
+            return;
+        }
+        isParked = true;
+        final boolean mayPark;
         lock.lock();
         try {
-            terminated.signalAll();
+            // producers that claimed a slot before the flag was set do not unpark
+            mayPark = taskQueue.isEmpty() && !taskQueue.isClosed();
         } finally {
             lock.unlock();
         }
+        if (mayPark) {
+            LockSupport.park(this);
+        }
+        isParked = false;
     }
 
-    private Runnable getQueuedTask() throws InterruptedException {
-        lock.lock();
-        try {
-            while (taskQueue.isEmpty()) {
-                if (isShutdown) {
-                    throw new InterruptedException();
+    private Runnable getQueuedTask() {
+        Runnable task = taskBatch.poll();
+        if (task == null) {
+            lock.lock();
+            try {
+                taskBatch.clear();
+                for (int i = 0; i < taskBatch.limit() && (task = taskQueue.poll()) != null; i++) {
+                    taskBatch.add(queueBudget.release(task));
                 }
-                taskAvailable.await();
+                taskBatch.start();
+            } finally {
+                lock.unlock();
+            }
+            task = taskBatch.poll();
+        }
+        return task;
+    }
+
+    /**
+     * Advances the lifecycle state to the given one unless it is already
+     * there or beyond. Returns whether this call changed the state.
+     */
+    private boolean advanceTo(int target) {
+        while (true) {
+            final int current = state.get();
+            if (current >= target) {
+                return false;
+            }
+            if (state.compareAndSet(current, target)) {
+                return true;
             }
-            return taskQueue.removeFirst();
-        } finally {
-            lock.unlock();
         }
     }
 
     @Override
     public boolean isShutdown() {
-        lock.lock();
-        try {
-            return isShutdown;
-        } finally {
-            lock.unlock();
-        }
+        return state.get() >= SHUTDOWN;
     }
 
     @Override
     public void shutdown() {
-        lock.lock();
-        try {
-            isShutdown = true;
-            taskAvailable.signal();
-            if (isTerminated()) {
-                terminated.signalAll();
-            }
-        } finally {
-            lock.unlock();
+        if (advanceTo(SHUTDOWN)) {
+            TaskEvents.shutdown(this);
         }
+        taskQueue.close();
+        queueBudget.close();
+        LockSupport.unpark(worker);
     }
 
     @Override
     public List<Runnable> shutdownNow() {
+        shutdown();
+        advanceTo(STOP);
         lock.lock();
         try {
-            isShutdown = true;
-            final List<Runnable> remainingTasks = new ArrayList<>(taskQueue);
-            taskQueue.clear();
+            final List<Runnable> remainingTasks = taskBatch.removeRemaining();
+            for (Runnable task = taskQueue.poll(); task != null; task = taskQueue.poll()) {
+                remainingTasks.add(queueBudget.release(task));
+            }
+            dequeuedTasks.add(remainingTasks.size());
             worker.interrupt();
-            return remainingTasks;
+            return TaskEvents.unwrapAll(remainingTasks);
         } finally {
             lock.unlock();
         }
@@ -118,25 +433,26 @@ public class SingleThreadExecutorService extends AbstractExecutorService {
 
     @Override
     public boolean isTerminated() {
-        lock.lock();
-        try {
-            return isShutdown && taskQueue.isEmpty();
-        } finally {
-            lock.unlock();
-        }
+        return state.get() == TERMINATED;
     }
 
     @Override
     public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
-        lock.lock();
         try {
-            long nanos = unit.toNanos(timeout);
-            while (!isTerminated() && nanos > 0) {
-                nanos = terminated.awaitNanos(nanos);
-            }
+            termination.get(timeout, unit);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
             return isTerminated();
-        } finally {
-            lock.unlock();
         }
     }
+
+    /**
+     * Returns a future that is completed when the executor has terminated.
+     * Dependent actions run in the worker thread as its last action, or in
+     * the calling thread if the executor has already terminated. Completing
+     * the returned future does not affect the executor.
+     */
+    public CompletableFuture<Void> onTermination() {
+        return termination.copy();
+    }
 }
@@ -0,0 +1,109 @@
+package sebfisch.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tasks taken from a queue in one go by a worker thread to be run back to
+ * back.
+ *
+ * Only the worker adds tasks and polls them, but other threads may remove
+ * the tasks that have not been started yet, for example in shutdownNow.
+ * Adding tasks must not overlap with removing them.
+ *
+ * The number of tasks per batch adapts to the time it takes to run them: it
+ * is halved when a batch runs longer than the latency target and grows by
+ * one after a full batch that met the target.
+ */
+final class TaskBatch {
+    static final int DEFAULT_MAX_SIZE = 64;
+    static final Duration DEFAULT_LATENCY_TARGET = Duration.ofMillis(1);
+
+    private final Runnable[] tasks;
+    private final long latencyTargetNanos;
+    private int limit;
+    private int size = 0;
+    private long startNanos;
+    // index of the next task to run, published after adding tasks
+    private final AtomicInteger next = new AtomicInteger();
+
+    TaskBatch(int maxSize, Duration latencyTarget) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        tasks = new Runnable[maxSize];
+        latencyTargetNanos = latencyTarget.toNanos();
+        limit = maxSize;
+    }
+
+    /**
+     * Returns how many tasks the next batch may hold.
+     */
+    int limit() {
+        return limit;
+    }
+
+    /**
+     * Discards the exhausted batch before adding tasks to the next one.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Adds a task to the next batch. Must only be called by the worker
+     * between {@link #clear()} and {@link #start()}.
+     */
+    void add(Runnable task) {
+        tasks[size++] = task;
+    }
+
+    /**
+     * Starts running the tasks added since the last {@link #clear()}.
+     */
+    void start() {
+        startNanos = System.nanoTime();
+        next.set(0);
+    }
+
+    /**
+     * Returns the next task of the current batch or {@code null} if there is
+     * none. Must only be called by the worker.
+     */
+    Runnable poll() {
+        int index = next.getAndIncrement();
+        if (index < size) {
+            Runnable task = tasks[index];
+            tasks[index] = null;
+            return task;
+        }
+        if (index == size && size > 0) {
+            adaptLimit(System.nanoTime() - startNanos);
+        }
+        return null;
+    }
+
+    /**
+     * Removes and returns the tasks of the current batch that have not been
+     * started yet.
+     */
+    List<Runnable> removeRemaining() {
+        final int from = next.getAndSet(tasks.length + 1);
+        final List<Runnable> remainingTasks = new ArrayList<>();
+        for (int index = from; index < size; index++) {
+            remainingTasks.add(tasks[index]);
+            tasks[index] = null;
+        }
+        return remainingTasks;
+    }
+
+    private void adaptLimit(long elapsedNanos) {
+        if (elapsedNanos > latencyTargetNanos) {
+            limit = Math.max(1, limit / 2);
+        } else if (size == limit) {
+            limit = Math.min(tasks.length, limit + 1);
+        }
+    }
+}
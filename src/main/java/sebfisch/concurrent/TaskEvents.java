@@ -0,0 +1,190 @@
+package sebfisch.concurrent;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder events for the life cycle of tasks and executors.
+ *
+ * Every method first checks whether its event is enabled, which the JIT
+ * compiles to a constant while no recording is running, so the events cost
+ * nothing then. Only tasks queued while {@link TaskExecuted} is enabled are
+ * wrapped to remember when they were queued. Executors must {@link #unwrap}
+ * queued entries before handing them out again.
+ */
+final class TaskEvents {
+    private TaskEvents() {
+    }
+
+    /**
+     * Returns the entry to be queued in place of the task, which records its
+     * execution if {@link TaskExecuted} is enabled.
+     */
+    static Runnable traced(Object executor, Runnable task) {
+        final TaskExecuted executed = new TaskExecuted();
+        if (!executed.isEnabled() || task == null) {
+            return task;
+        }
+        executed.begin();
+        executed.executorClass = executor.getClass();
+        executed.taskClass = task.getClass();
+        return new TracedTask(task, executed, System.nanoTime());
+    }
+
+    static void enqueued(Object executor, Runnable task) {
+        final TaskEnqueued enqueued = new TaskEnqueued();
+        if (enqueued.isEnabled()) {
+            enqueued.executorClass = executor.getClass();
+            enqueued.taskClass = task.getClass();
+            enqueued.commit();
+        }
+    }
+
+    static Runnable unwrap(Runnable entry) {
+        return entry instanceof TracedTask traced ? traced.task : entry;
+    }
+
+    static List<Runnable> unwrapAll(List<Runnable> entries) {
+        entries.replaceAll(TaskEvents::unwrap);
+        return entries;
+    }
+
+    static void rejected(Object executor, Runnable task, RejectedExecutionException exception) {
+        final TaskRejected rejected = new TaskRejected();
+        if (rejected.isEnabled()) {
+            rejected.executorClass = executor.getClass();
+            rejected.taskClass = task == null ? null : unwrap(task).getClass();
+            rejected.reason = exception.getMessage();
+            rejected.commit();
+        }
+    }
+
+    static void shutdown(Object executor) {
+        final ExecutorShutdown shutdown = new ExecutorShutdown();
+        if (shutdown.isEnabled()) {
+            shutdown.executorClass = executor.getClass();
+            shutdown.commit();
+        }
+    }
+
+    static void terminated(Object executor) {
+        final ExecutorTerminated terminated = new ExecutorTerminated();
+        if (terminated.isEnabled()) {
+            terminated.executorClass = executor.getClass();
+            terminated.commit();
+        }
+    }
+
+    private static final class TracedTask implements Runnable {
+        final Runnable task;
+        final TaskExecuted event;
+        final long enqueuedNanos;
+
+        TracedTask(Runnable task, TaskExecuted event, long enqueuedNanos) {
+            this.task = task;
+            this.event = event;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+
+        @Override
+        public void run() {
+            final long startNanos = System.nanoTime();
+            boolean failed = true;
+            try {
+                task.run();
+                failed = false;
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    final long endNanos = System.nanoTime();
+                    event.queueWait = startNanos - enqueuedNanos;
+                    event.runTime = endNanos - startNanos;
+                    event.failed = failed;
+                    event.commit();
+                }
+            }
+        }
+    }
+
+    @Name("sebfisch.concurrent.TaskEnqueued")
+    @Label("Task Enqueued")
+    @Category({ "Java Application", "Executors" })
+    @Description("A task was accepted by an executor")
+    @Enabled(false)
+    @StackTrace(false)
+    static final class TaskEnqueued extends Event {
+        @Label("Executor Class")
+        Class<?> executorClass;
+
+        @Label("Task Class")
+        Class<?> taskClass;
+    }
+
+    @Name("sebfisch.concurrent.TaskExecuted")
+    @Label("Task Executed")
+    @Category({ "Java Application", "Executors" })
+    @Description("A task ran, the duration spans from enqueuing the task until it finished")
+    @Threshold("1 ms")
+    @StackTrace(false)
+    static final class TaskExecuted extends Event {
+        @Label("Executor Class")
+        Class<?> executorClass;
+
+        @Label("Task Class")
+        Class<?> taskClass;
+
+        @Label("Queue Wait")
+        @Timespan(Timespan.NANOSECONDS)
+        long queueWait;
+
+        @Label("Run Time")
+        @Timespan(Timespan.NANOSECONDS)
+        long runTime;
+
+        @Label("Failed")
+        boolean failed;
+    }
+
+    @Name("sebfisch.concurrent.TaskRejected")
+    @Label("Task Rejected")
+    @Category({ "Java Application", "Executors" })
+    @Description("An executor rejected a task")
+    static final class TaskRejected extends Event {
+        @Label("Executor Class")
+        Class<?> executorClass;
+
+        @Label("Task Class")
+        Class<?> taskClass;
+
+        @Label("Reason")
+        String reason;
+    }
+
+    @Name("sebfisch.concurrent.ExecutorShutdown")
+    @Label("Executor Shutdown")
+    @Category({ "Java Application", "Executors" })
+    @StackTrace(false)
+    static final class ExecutorShutdown extends Event {
+        @Label("Executor Class")
+        Class<?> executorClass;
+    }
+
+    @Name("sebfisch.concurrent.ExecutorTerminated")
+    @Label("Executor Terminated")
+    @Category({ "Java Application", "Executors" })
+    @StackTrace(false)
+    static final class ExecutorTerminated extends Event {
+        @Label("Executor Class")
+        Class<?> executorClass;
+    }
+}
@@ -0,0 +1,451 @@
+package sebfisch.concurrent;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Single-thread scheduled executor service that keeps delayed tasks in a
+ * hashed timing wheel.
+ *
+ * Time is divided into ticks, and every tick maps to one of a fixed number of
+ * buckets. Scheduling a task adds it to a lock-free queue, from which the
+ * worker links it into the bucket of its tick. Cancelling a task only marks
+ * it; the worker unlinks it when it next visits its bucket. Both are O(1),
+ * and tasks run at most one tick late. Without ready tasks, the worker
+ * sleeps until the next tick whose bucket holds a timer.
+ *
+ * As in {@link java.util.concurrent.ScheduledThreadPoolExecutor}, delayed
+ * tasks still run after {@link #shutdown()}, but periodic tasks stop.
+ */
+public class TimingWheelScheduledExecutorService extends AbstractExecutorService
+        implements ScheduledExecutorService {
+    public static final Duration DEFAULT_TICK = Duration.ofMillis(1);
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+    // about 146 years
+    private static final long MAX_DELAY_NANOS = Long.MAX_VALUE >> 1;
+
+    private final Thread worker;
+    // immediate tasks and timers that have not been placed on the wheel yet
+    private final MpscChunkedQueue<Runnable> submissions = new MpscChunkedQueue<>();
+    private volatile boolean isShutdown = false;
+    private volatile boolean isTerminated = false;
+    private volatile boolean isParked = false;
+    // the tick until which the parked worker sleeps, so that producers only
+    // wake it for timers that are due earlier
+    private volatile long wakeUpTick = Long.MAX_VALUE;
+
+    // guarded by lock, only changed by the worker except in shutdownNow
+    private final Timer<?>[] wheel;
+    private final Queue<Runnable> readyTasks = new ArrayDeque<>();
+    private final long tickNanos;
+    private final long origin = System.nanoTime();
+    private long currentTick = 0;
+    private int timerCount = 0;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition terminated = lock.newCondition();
+
+    public TimingWheelScheduledExecutorService() {
+        this(DEFAULT_TICK, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * Creates an executor whose wheel has {@code wheelSize} buckets of one
+     * {@code tick} each. The wheel size is rounded up to a power of two.
+     */
+    public TimingWheelScheduledExecutorService(Duration tick, int wheelSize) {
+        if (tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        if (wheelSize < 1 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("Wheel size must be between 1 and 2^30");
+        }
+        tickNanos = tick.toNanos();
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        wheel = new Timer<?>[size];
+        worker = new Thread(this::runQueuedTasks);
+        worker.start();
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        enqueue(task);
+    }
+
+    private void enqueue(Runnable entry) {
+        if (!submissions.offer(entry)) {
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        // the worker places later timers when it wakes up anyway
+        if (isParked && (!(entry instanceof Timer<?> timer) || tickOf(timer.deadline) < wakeUpTick)) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return schedule(Executors.callable(command), delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        final Timer<V> timer = new Timer<>(callable, deadlineAfter(delay, unit), 0);
+        enqueue(timer);
+        return timer;
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period,
+            TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("Period must be positive");
+        }
+        final Timer<?> timer = new Timer<>(Executors.callable(command), deadlineAfter(initialDelay, unit),
+                unit.toNanos(period));
+        enqueue(timer);
+        return timer;
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay,
+            TimeUnit unit) {
+        if (delay <= 0) {
+            throw new IllegalArgumentException("Delay must be positive");
+        }
+        final Timer<?> timer = new Timer<>(Executors.callable(command), deadlineAfter(initialDelay, unit),
+                -unit.toNanos(delay));
+        enqueue(timer);
+        return timer;
+    }
+
+    // deadlines are only compared by their difference to the current time, which
+    // must not overflow, so longer delays are treated as the longest one that
+    // cannot overflow, like ScheduledThreadPoolExecutor does
+    private static long deadlineAfter(long delay, TimeUnit unit) {
+        return System.nanoTime() + Math.clamp(unit.toNanos(delay), 0, MAX_DELAY_NANOS);
+    }
+
+    private void runQueuedTasks() {
+        while (true) {
+            final Runnable task = takeReadyTask();
+            if (task != null) {
+                try {
+                    task.run();
+                } catch (Exception exception) {
+                    System.err.println(exception.getMessage());
+                }
+                // do not let a task interrupting itself affect the next one
+                Thread.interrupted();
+            } else if (hasTerminated()) {
+                break;
+            } else {
+                awaitTasks();
+            }
+        }
+        lock.lock();
+        try {
+            isTerminated = true;
+            terminated.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Runnable takeReadyTask() {
+        lock.lock();
+        try {
+            for (Runnable entry = submissions.poll(); entry != null; entry = submissions.poll()) {
+                if (entry instanceof Timer<?> timer) {
+                    place(timer);
+                } else {
+                    readyTasks.add(entry);
+                }
+            }
+            advance(Math.floorDiv(System.nanoTime() - origin, tickNanos));
+            return readyTasks.poll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean hasTerminated() {
+        if (!isShutdown) {
+            return false;
+        }
+        lock.lock();
+        try {
+            if (timerCount > 0) {
+                purgeAfterShutdown();
+            }
+            return timerCount == 0 && readyTasks.isEmpty() && submissions.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void awaitTasks() {
+        final long tick;
+        lock.lock();
+        try {
+            // only the worker advances the current tick
+            tick = timerCount > 0 ? nextOccupiedTick() : Long.MAX_VALUE;
+            wakeUpTick = tick;
+            isParked = true;
+            // producers that offered before the flag was set do not unpark
+            if (!submissions.isEmpty()) {
+                isParked = false;
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (tick != Long.MAX_VALUE) {
+            LockSupport.parkNanos(this, tick * tickNanos + origin - System.nanoTime());
+        } else if (!isShutdown) {
+            LockSupport.park(this);
+        }
+        isParked = false;
+    }
+
+    // the first tick that starts at or after the deadline
+    private long tickOf(long deadline) {
+        return Math.max(0, Math.ceilDiv(deadline - origin, tickNanos));
+    }
+
+    // The first tick within one rotation whose bucket holds a timer, which
+    // may be due only in a later rotation. Must be called while holding the
+    // lock and with at least one timer on the wheel.
+    private long nextOccupiedTick() {
+        final long lastTick = currentTick + wheel.length;
+        for (long tick = currentTick + 1; tick < lastTick; tick++) {
+            if (wheel[(int) (tick & (wheel.length - 1))] != null) {
+                return tick;
+            }
+        }
+        return lastTick;
+    }
+
+    // must be called while holding the lock
+    private void place(Timer<?> timer) {
+        if (timer.isCancelled()) {
+            return;
+        }
+        final long tick = tickOf(timer.deadline);
+        if (tick <= currentTick) {
+            readyTasks.add(timer);
+            return;
+        }
+        timer.tick = tick;
+        final int bucket = (int) (tick & (wheel.length - 1));
+        timer.prev = null;
+        timer.next = wheel[bucket];
+        if (timer.next != null) {
+            timer.next.prev = timer;
+        }
+        wheel[bucket] = timer;
+        timerCount++;
+    }
+
+    // must be called while holding the lock
+    private void unlink(Timer<?> timer, int bucket) {
+        if (timer.prev == null) {
+            wheel[bucket] = timer.next;
+        } else {
+            timer.prev.next = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timerCount--;
+    }
+
+    /**
+     * Moves all timers up to the given tick to the ready tasks. Visits every
+     * bucket at most once, even if many ticks have passed.
+     * Must be called while holding the lock.
+     */
+    private void advance(long targetTick) {
+        if (targetTick <= currentTick) {
+            return;
+        }
+        if (timerCount > 0) {
+            final long from = Math.max(currentTick + 1, targetTick - wheel.length + 1);
+            for (long tick = from; tick <= targetTick; tick++) {
+                final int bucket = (int) (tick & (wheel.length - 1));
+                Timer<?> timer = wheel[bucket];
+                while (timer != null) {
+                    final Timer<?> next = timer.next;
+                    if (timer.isCancelled()) {
+                        unlink(timer, bucket);
+                    } else if (timer.tick <= targetTick) {
+                        unlink(timer, bucket);
+                        readyTasks.add(timer);
+                    }
+                    timer = next;
+                }
+            }
+        }
+        currentTick = targetTick;
+    }
+
+    /**
+     * Removes cancelled timers and cancels periodic ones, so that only
+     * delayed tasks keep the executor from terminating.
+     * Must be called while holding the lock.
+     */
+    private void purgeAfterShutdown() {
+        for (int bucket = 0; bucket < wheel.length; bucket++) {
+            Timer<?> timer = wheel[bucket];
+            while (timer != null) {
+                final Timer<?> next = timer.next;
+                if (timer.isPeriodic()) {
+                    timer.cancel(false);
+                }
+                if (timer.isCancelled()) {
+                    unlink(timer, bucket);
+                }
+                timer = next;
+            }
+        }
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return isShutdown;
+    }
+
+    @Override
+    public void shutdown() {
+        isShutdown = true;
+        submissions.close();
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * Returns the tasks that have not been started, including all delayed
+     * and periodic tasks that have not been cancelled.
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        lock.lock();
+        try {
+            final List<Runnable> remainingTasks = new ArrayList<>(readyTasks);
+            readyTasks.clear();
+            for (Runnable entry = submissions.poll(); entry != null; entry = submissions.poll()) {
+                if (!(entry instanceof Timer<?> timer && timer.isCancelled())) {
+                    remainingTasks.add(entry);
+                }
+            }
+            for (int bucket = 0; bucket < wheel.length; bucket++) {
+                while (wheel[bucket] != null) {
+                    final Timer<?> timer = wheel[bucket];
+                    unlink(timer, bucket);
+                    if (!timer.isCancelled()) {
+                        remainingTasks.add(timer);
+                    }
+                }
+            }
+            worker.interrupt();
+            return remainingTasks;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return isTerminated;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        lock.lock();
+        try {
+            long nanos = unit.toNanos(timeout);
+            while (!isTerminated && nanos > 0) {
+                nanos = terminated.awaitNanos(nanos);
+            }
+            return isTerminated;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private final class Timer<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+        // positive: fixed rate, negative: fixed delay, zero: not periodic
+        private final long period;
+        // only changed by the worker
+        private long deadline;
+        private long tick;
+        private Timer<?> prev;
+        private Timer<?> next;
+
+        Timer(Callable<V> callable, long deadline, long period) {
+            super(callable);
+            this.deadline = deadline;
+            this.period = period;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return period != 0;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            final boolean isCancelled = super.cancel(mayInterruptIfRunning);
+            if (isCancelled && isShutdown) {
+                LockSupport.unpark(worker); // so that it can terminate
+            }
+            return isCancelled;
+        }
+
+        @Override
+        public void run() {
+            if (!isPeriodic()) {
+                super.run();
+            } else if (runAndReset()) {
+                deadline = period > 0 ? deadline + period : System.nanoTime() - period;
+                if (!submissions.offer(this)) {
+                    cancel(false); // periodic tasks stop after shutdown
+                }
+            }
+        }
+    }
+}
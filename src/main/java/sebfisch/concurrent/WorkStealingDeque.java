@@ -0,0 +1,119 @@
+package sebfisch.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Growable array deque of tasks owned by one worker thread (Chase-Lev).
+ *
+ * The owner pushes and pops tasks at the bottom, so it runs the most recently
+ * added task first. Other threads steal tasks from the top, so they take the
+ * oldest task, which is usually the largest piece of work left.
+ */
+final class WorkStealingDeque {
+    private static final int INITIAL_CAPACITY = 1 << 8;
+
+    private static final VarHandle TOP;
+    private static final VarHandle ARRAY = MethodHandles.arrayElementVarHandle(Runnable[].class);
+
+    static {
+        try {
+            TOP = MethodHandles.lookup().findVarHandle(WorkStealingDeque.class, "top", long.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile long top = 0;
+    private volatile long bottom = 0;
+    private volatile Runnable[] tasks = new Runnable[INITIAL_CAPACITY];
+    // slots below top that still hold stolen tasks start here, owner only
+    private long uncleared = 0;
+
+    /**
+     * Adds a task at the bottom. Must only be called by the owner.
+     */
+    void push(Runnable task) {
+        final long b = bottom;
+        final long t = top;
+        Runnable[] array = tasks;
+        if (b - t > array.length - 1) {
+            array = grow(array, b, t);
+        } else {
+            clearStolen(array, t);
+        }
+        ARRAY.setRelease(array, (int) b & (array.length - 1), task);
+        bottom = b + 1;
+    }
+
+    /**
+     * Removes the most recently pushed task or returns {@code null} if the
+     * deque is empty. Must only be called by the owner.
+     */
+    Runnable pop() {
+        final long b = bottom - 1;
+        final Runnable[] array = tasks;
+        bottom = b;
+        final long t = top;
+        if (t > b) {
+            bottom = b + 1;
+            clearStolen(array, t);
+            return null;
+        }
+        final int index = (int) b & (array.length - 1);
+        Runnable task = (Runnable) ARRAY.getAcquire(array, index);
+        if (t == b) {
+            // last task, race against thieves
+            if (!TOP.compareAndSet(this, t, t + 1)) {
+                task = null;
+            }
+            bottom = b + 1;
+        }
+        // a thief that won the race has read the task before moving top
+        ARRAY.setRelease(array, index, null);
+        return task;
+    }
+
+    /**
+     * Removes the oldest task or returns {@code null} if the deque is empty
+     * or another thread took the task first. May be called by any thread.
+     */
+    Runnable steal() {
+        final long t = top;
+        final long b = bottom;
+        if (t >= b) {
+            return null;
+        }
+        final Runnable[] array = tasks;
+        final Runnable task = (Runnable) ARRAY.getAcquire(array, (int) t & (array.length - 1));
+        if (!TOP.compareAndSet(this, t, t + 1)) {
+            return null;
+        }
+        return task;
+    }
+
+    boolean isEmpty() {
+        return top >= bottom;
+    }
+
+    // Thieves do not clear their slots, because the owner may already reuse a
+    // slot once top has moved past it. Instead, the owner clears slots below
+    // top before it pushes into them again, so that stolen tasks do not stay
+    // reachable from the deque.
+    private void clearStolen(Runnable[] array, long t) {
+        for (; uncleared < t; uncleared++) {
+            ARRAY.setRelease(array, (int) uncleared & (array.length - 1), null);
+        }
+    }
+
+    private Runnable[] grow(Runnable[] array, long b, long t) {
+        final Runnable[] grown = new Runnable[array.length * 2];
+        for (long i = t; i < b; i++) {
+            grown[(int) i & (grown.length - 1)] = array[(int) i & (array.length - 1)];
+        }
+        tasks = grown;
+        // slots of the new array below t have never been filled
+        uncleared = t;
+        return grown;
+    }
+}
@@ -0,0 +1,230 @@
+package sebfisch.concurrent;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Executor service with a fixed number of workers that steal tasks from each
+ * other.
+ *
+ * Tasks submitted by a worker are pushed to its own deque and run in LIFO
+ * order by that worker, which keeps their data in its cache. Tasks submitted
+ * by other threads go to a shared queue. Idle workers take tasks from the
+ * shared queue or steal the oldest tasks from other workers, and park when
+ * there is nothing to do.
+ */
+public class WorkStealingExecutorService extends AbstractExecutorService {
+    // sign bit: shutdown, remaining bits: accepted tasks that have not
+    // finished yet
+    private static final int SHUTDOWN = Integer.MIN_VALUE;
+    private final AtomicInteger state = new AtomicInteger();
+    private volatile boolean isStopped = false;
+
+    private final List<Worker> workers = new ArrayList<>();
+    private final Queue<Runnable> submissions = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleWorkers = new AtomicInteger();
+    private final CountDownLatch terminated;
+
+    public WorkStealingExecutorService() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public WorkStealingExecutorService(int workerCount) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("Worker count must be positive");
+        }
+        terminated = new CountDownLatch(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(new Worker(i));
+        }
+        workers.forEach(Thread::start);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        if (task == null) {
+            throw new NullPointerException();
+        }
+        if (state.getAndIncrement() < 0) {
+            finishTask();
+            throw new RejectedExecutionException("Executor has been shut down");
+        }
+        if (Thread.currentThread() instanceof Worker worker && worker.pool() == this) {
+            worker.deque.push(task);
+        } else {
+            submissions.offer(task);
+        }
+        if (idleWorkers.get() > 0) {
+            wakeIdleWorker();
+        }
+    }
+
+    private void finishTask() {
+        if (state.decrementAndGet() == SHUTDOWN) {
+            wakeAllWorkers(); // so that they terminate
+        }
+    }
+
+    private void wakeIdleWorker() {
+        for (Worker worker : workers) {
+            if (worker.unparkIfParked()) {
+                return;
+            }
+        }
+    }
+
+    private void wakeAllWorkers() {
+        workers.forEach(LockSupport::unpark);
+    }
+
+    private Runnable findTask(Worker thief) {
+        Runnable task = thief.deque.pop();
+        if (task == null) {
+            task = submissions.poll();
+        }
+        if (task == null) {
+            final int start = ThreadLocalRandom.current().nextInt(workers.size());
+            for (int i = 0; i < workers.size() && task == null; i++) {
+                final Worker victim = workers.get((start + i) % workers.size());
+                if (victim != thief) {
+                    task = victim.deque.steal();
+                }
+            }
+        }
+        return task;
+    }
+
+    private boolean hasVisibleTasks() {
+        return !submissions.isEmpty() || workers.stream().anyMatch(worker -> !worker.deque.isEmpty());
+    }
+
+    private void runTasks(Worker worker) {
+        while (true) {
+            final Runnable task = findTask(worker);
+            if (task != null) {
+                runTask(task);
+            } else if (state.get() == SHUTDOWN || isStopped) {
+                // after shutdownNow no more tasks can be accepted
+                break;
+            } else {
+                awaitTask(worker);
+            }
+        }
+        terminated.countDown();
+    }
+
+    private void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (Exception exception) {
+            System.err.println(exception.getMessage());
+        } finally {
+            if (!isStopped) {
+                // do not let a task interrupting itself affect the next one
+                Thread.interrupted();
+            }
+            finishTask();
+        }
+    }
+
+    private void awaitTask(Worker worker) {
+        worker.parked = true;
+        idleWorkers.incrementAndGet();
+        // tasks submitted before the increment may not have woken anyone
+        if (!hasVisibleTasks() && state.get() != SHUTDOWN) {
+            LockSupport.park(this);
+        }
+        idleWorkers.decrementAndGet();
+        worker.parked = false;
+    }
+
+    @Override
+    public void shutdown() {
+        if (state.getAndUpdate(s -> s | SHUTDOWN) == 0) {
+            wakeAllWorkers();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        isStopped = true;
+        shutdown();
+        final List<Runnable> remainingTasks = new ArrayList<>();
+        for (Runnable task = submissions.poll(); task != null; task = submissions.poll()) {
+            remainingTasks.add(task);
+        }
+        for (Worker worker : workers) {
+            while (!worker.deque.isEmpty()) {
+                final Runnable task = worker.deque.steal();
+                if (task != null) {
+                    remainingTasks.add(task);
+                }
+            }
+        }
+        remainingTasks.forEach(task -> finishTask());
+        workers.forEach(Thread::interrupt);
+        return remainingTasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return state.get() < 0;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    private final class Worker extends Thread {
+        private static final VarHandle PARKED;
+
+        static {
+            try {
+                PARKED = MethodHandles.lookup().findVarHandle(Worker.class, "parked", boolean.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        final WorkStealingDeque deque = new WorkStealingDeque();
+        volatile boolean parked = false;
+
+        Worker(int index) {
+            super("work-stealing-worker-" + index);
+        }
+
+        WorkStealingExecutorService pool() {
+            return WorkStealingExecutorService.this;
+        }
+
+        boolean unparkIfParked() {
+            if (parked && PARKED.compareAndSet(this, true, false)) {
+                LockSupport.unpark(this);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void run() {
+            runTasks(this);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package sebfisch.parallel;
+
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.function.LongBinaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Sums, minima, maxima, dot products and histograms of primitive arrays,
+ * using both the cores and the SIMD lanes of the processor.
+ *
+ * Large arrays are split into chunks that are reduced in parallel, and each
+ * chunk is reduced with the Vector API if the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}, otherwise with scalar loops.
+ * Like Java arithmetic, sums and dot products wrap around on overflow; sums
+ * and dot products of int arrays are computed in long arithmetic.
+ */
+public final class ArrayReductions {
+    // smaller chunks cost more to fork than to reduce
+    static final int MIN_CHUNK_LENGTH = 1 << 14;
+
+    static final ReductionKernels KERNELS = selectKernels();
+
+    private ArrayReductions() {
+    }
+
+    private static ReductionKernels selectKernels() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                if (VectorKernels.isProfitable()) {
+                    return new VectorKernels();
+                }
+            } catch (LinkageError e) {
+                // the module cannot be read, fall back to scalar loops
+            }
+        }
+        return new ScalarKernels();
+    }
+
+    /**
+     * Returns whether chunks are reduced with the Vector API.
+     */
+    public static boolean isVectorized() {
+        return KERNELS instanceof VectorKernels;
+    }
+
+    public static long sum(long[] values) {
+        return reduce(values.length, 0, (from, to) -> KERNELS.sum(values, from, to), Long::sum);
+    }
+
+    public static long sum(int[] values) {
+        return reduce(values.length, 0, (from, to) -> KERNELS.sum(values, from, to), Long::sum);
+    }
+
+    public static OptionalLong min(long[] values) {
+        if (values.length == 0) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(reduce(values.length, Long.MAX_VALUE,
+                (from, to) -> KERNELS.min(values, from, to), Math::min));
+    }
+
+    public static OptionalInt min(int[] values) {
+        if (values.length == 0) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of((int) reduce(values.length, Integer.MAX_VALUE,
+                (from, to) -> KERNELS.min(values, from, to), Math::min));
+    }
+
+    public static OptionalLong max(long[] values) {
+        if (values.length == 0) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(reduce(values.length, Long.MIN_VALUE,
+                (from, to) -> KERNELS.max(values, from, to), Math::max));
+    }
+
+    public static OptionalInt max(int[] values) {
+        if (values.length == 0) {
+            return OptionalInt.empty();
+        }
+        return OptionalInt.of((int) reduce(values.length, Integer.MIN_VALUE,
+                (from, to) -> KERNELS.max(values, from, to), Math::max));
+    }
+
+    /**
+     * Returns the sum of the products of the elements at the same index.
+     *
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public static long dot(long[] left, long[] right) {
+        checkSameLength(left.length, right.length);
+        return reduce(left.length, 0, (from, to) -> KERNELS.dot(left, right, from, to), Long::sum);
+    }
+
+    /**
+     * Returns the sum of the products of the elements at the same index.
+     *
+     * @throws IllegalArgumentException if the arrays differ in length
+     */
+    public static long dot(int[] left, int[] right) {
+        checkSameLength(left.length, right.length);
+        return reduce(left.length, 0, (from, to) -> KERNELS.dot(left, right, from, to), Long::sum);
+    }
+
+    /**
+     * Counts the values in each of the given number of bins. Bin {@code i}
+     * holds the values v with {@code origin + i * binWidth <= v} and
+     * {@code v < origin + (i + 1) * binWidth}, values outside of all bins are
+     * not counted.
+     *
+     * Chunks are counted in parallel but not with vectors, because the lanes
+     * of a vector may have to increment the same bin.
+     *
+     * @throws IllegalArgumentException unless the bin width and the number of
+     *                                  bins are positive
+     */
+    public static long[] histogram(long[] values, long origin, long binWidth, int bins) {
+        checkBins(binWidth, bins);
+        return histogram(values.length, bins, (counts, from, to) -> {
+            for (int i = from; i < to; i++) {
+                count(counts, values[i], origin, binWidth);
+            }
+        });
+    }
+
+    /**
+     * Counts the values in each of the given number of bins like
+     * {@link #histogram(long[], long, long, int)}.
+     */
+    public static long[] histogram(int[] values, int origin, int binWidth, int bins) {
+        checkBins(binWidth, bins);
+        return histogram(values.length, bins, (counts, from, to) -> {
+            for (int i = from; i < to; i++) {
+                count(counts, values[i], origin, binWidth);
+            }
+        });
+    }
+
+    private static void count(long[] counts, long value, long origin, long binWidth) {
+        if (value < origin) {
+            return;
+        }
+        // the difference may only fit into an unsigned long
+        final long bin = Long.divideUnsigned(value - origin, binWidth);
+        if (bin < counts.length) {
+            counts[(int) bin]++;
+        }
+    }
+
+    private static void checkSameLength(int left, int right) {
+        if (left != right) {
+            throw new IllegalArgumentException("Arrays must have the same length");
+        }
+    }
+
+    private static void checkBins(long binWidth, int bins) {
+        if (binWidth <= 0) {
+            throw new IllegalArgumentException("Bin width must be positive");
+        }
+        if (bins <= 0) {
+            throw new IllegalArgumentException("Number of bins must be positive");
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkReduction {
+        long reduce(int from, int to);
+    }
+
+    @FunctionalInterface
+    private interface ChunkCounter {
+        void count(long[] counts, int from, int to);
+    }
+
+    private static long reduce(int length, long identity, ChunkReduction reduction, LongBinaryOperator combiner) {
+        if (length <= MIN_CHUNK_LENGTH) {
+            return reduction.reduce(0, length);
+        }
+        final int chunkLength = chunkLength(length);
+        return IntStream.range(0, Math.ceilDiv(length, chunkLength)).parallel()
+                .mapToLong(chunk -> {
+                    final int from = chunk * chunkLength;
+                    return reduction.reduce(from, Math.min(from + chunkLength, length));
+                })
+                .reduce(identity, combiner);
+    }
+
+    private static long[] histogram(int length, int bins, ChunkCounter counter) {
+        if (length <= MIN_CHUNK_LENGTH) {
+            final long[] counts = new long[bins];
+            counter.count(counts, 0, length);
+            return counts;
+        }
+        final int chunkLength = chunkLength(length);
+        // each thread counts into its own array, which are added at the end
+        return IntStream.range(0, Math.ceilDiv(length, chunkLength)).parallel()
+                .collect(() -> new long[bins],
+                        (counts, chunk) -> {
+                            final int from = chunk * chunkLength;
+                            counter.count(counts, from, Math.min(from + chunkLength, length));
+                        },
+                        (counts, others) -> {
+                            for (int i = 0; i < bins; i++) {
+                                counts[i] += others[i];
+                            }
+                        });
+    }
+
+    // a few chunks per core balance the load if some cores are busy
+    private static int chunkLength(int length) {
+        return Math.max(MIN_CHUNK_LENGTH, Math.ceilDiv(length, 8 * Runtime.getRuntime().availableProcessors()));
+    }
+}
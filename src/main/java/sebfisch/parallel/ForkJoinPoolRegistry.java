@@ -0,0 +1,102 @@
+package sebfisch.parallel;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated fork/join pools by name, so that workloads with parallel streams
+ * can be isolated from each other and from the common pool.
+ *
+ * Pools are created on first use with the default parallelism of the
+ * registry, unless they have been registered with their own parallelism
+ * before. Closing the registry shuts down all its pools.
+ */
+public final class ForkJoinPoolRegistry implements AutoCloseable {
+    private final int defaultParallelism;
+    // guarded by this
+    private final Map<String, ForkJoinPool> pools = new HashMap<>();
+    private boolean isClosed = false;
+
+    public ForkJoinPoolRegistry() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the parallelism is not positive
+     */
+    public ForkJoinPoolRegistry(int defaultParallelism) {
+        if (defaultParallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.defaultParallelism = defaultParallelism;
+    }
+
+    /**
+     * Creates the pool with the given name and parallelism.
+     *
+     * @throws IllegalStateException if a pool with the given name exists or
+     *                               the registry has been closed
+     */
+    public synchronized ForkJoinPool register(String name, int parallelism) {
+        checkOpen();
+        if (pools.containsKey(name)) {
+            throw new IllegalStateException("Pool %s has already been registered".formatted(name));
+        }
+        final ForkJoinPool pool = ForkJoinPools.create(name, parallelism);
+        pools.put(name, pool);
+        return pool;
+    }
+
+    /**
+     * Returns the pool with the given name, creating it with the default
+     * parallelism if necessary.
+     *
+     * @throws IllegalStateException if the registry has been closed
+     */
+    public synchronized ForkJoinPool pool(String name) {
+        checkOpen();
+        return pools.computeIfAbsent(name, key -> ForkJoinPools.create(key, defaultParallelism));
+    }
+
+    public synchronized Set<String> names() {
+        return Set.copyOf(pools.keySet());
+    }
+
+    /**
+     * Evaluates the pipeline in the pool with the given name.
+     */
+    public <T> T invoke(String name, Supplier<T> pipeline) {
+        return ForkJoinPools.invoke(pool(name), pipeline);
+    }
+
+    /**
+     * Runs the pipeline in the pool with the given name.
+     */
+    public void run(String name, Runnable pipeline) {
+        ForkJoinPools.run(pool(name), pipeline);
+    }
+
+    private void checkOpen() {
+        if (isClosed) {
+            throw new IllegalStateException("Registry has been closed");
+        }
+    }
+
+    /**
+     * Shuts down all pools and waits until their running pipelines have
+     * finished.
+     */
+    @Override
+    public void close() {
+        final Map<String, ForkJoinPool> closed;
+        synchronized (this) {
+            isClosed = true;
+            closed = Map.copyOf(pools);
+            pools.clear();
+        }
+        closed.values().forEach(ForkJoinPool::close);
+    }
+}
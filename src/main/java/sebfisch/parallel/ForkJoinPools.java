@@ -0,0 +1,57 @@
+package sebfisch.parallel;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs parallel stream pipelines on a given fork/join pool instead of the
+ * common pool.
+ *
+ * A parallel stream forks its tasks into the pool of the worker thread that
+ * starts the terminal operation, and only falls back to the common pool if
+ * it is started by some other thread. Invoking the whole pipeline as a task
+ * of a dedicated pool therefore keeps all its tasks in that pool, where they
+ * cannot starve asynchronous tasks in the common pool. This is how the
+ * streams API behaves in practice, although it does not specify it.
+ */
+public final class ForkJoinPools {
+    private ForkJoinPools() {
+    }
+
+    /**
+     * Creates a pool with the given parallelism whose daemon worker threads
+     * are named {@code <name>-worker-<number>}.
+     *
+     * @throws IllegalArgumentException if the parallelism is not positive
+     */
+    public static ForkJoinPool create(String name, int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        final AtomicInteger workers = new AtomicInteger();
+        return new ForkJoinPool(parallelism, pool -> {
+            final ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            worker.setName("%s-worker-%d".formatted(name, workers.incrementAndGet()));
+            return worker;
+        }, null, false);
+    }
+
+    /**
+     * Evaluates the pipeline in the given pool and returns its result.
+     * Exceptions thrown by the pipeline are rethrown.
+     */
+    public static <T> T invoke(ForkJoinPool pool, Supplier<T> pipeline) {
+        return pool.invoke(ForkJoinTask.adapt(pipeline::get));
+    }
+
+    /**
+     * Runs the pipeline in the given pool, for pipelines that end with
+     * {@code forEach} or another operation without result.
+     */
+    public static void run(ForkJoinPool pool, Runnable pipeline) {
+        pool.invoke(ForkJoinTask.adapt(pipeline));
+    }
+}
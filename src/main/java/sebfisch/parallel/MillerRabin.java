@@ -0,0 +1,151 @@
+package sebfisch.parallel;
+
+/**
+ * Deterministic primality test for all non-negative longs.
+ *
+ * Numbers with a prime factor below 64 are recognized without division by
+ * multiplying with the inverse of the factor modulo 2^64. All other numbers
+ * are checked with the Miller-Rabin test for seven bases that together admit
+ * no strong pseudoprime below 2^64. Modular products are computed in
+ * Montgomery form, from the high halves of two 128 bit products instead of a
+ * 128 bit division.
+ */
+public final class MillerRabin {
+    // found by Jim Sinclair, see https://miller-rabin.appspot.com
+    private static final long[] BASES = { 2, 325, 9375, 28178, 450775, 9780504, 1795265022 };
+
+    static final int[] SMALL_PRIMES = { 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53, 59, 61 };
+    // numbers below the square of the next prime without small factors are prime
+    private static final long SMALL_PRIME_BOUND = 67 * 67;
+    // n is divisible by p iff n * inverse(p) <= (2^64 - 1) / p as unsigned longs
+    private static final long[] SMALL_INVERSES = new long[SMALL_PRIMES.length];
+    private static final long[] SMALL_LIMITS = new long[SMALL_PRIMES.length];
+
+    static {
+        for (int i = 0; i < SMALL_PRIMES.length; i++) {
+            SMALL_INVERSES[i] = inverse(SMALL_PRIMES[i]);
+            SMALL_LIMITS[i] = Long.divideUnsigned(-1L, SMALL_PRIMES[i]);
+        }
+    }
+
+    private MillerRabin() {
+    }
+
+    public static boolean isPrime(long number) {
+        if (number < 2) {
+            return false;
+        }
+        if ((number & 1) == 0) {
+            return number == 2;
+        }
+        for (int i = 0; i < SMALL_PRIMES.length; i++) {
+            if (Long.compareUnsigned(number * SMALL_INVERSES[i], SMALL_LIMITS[i]) <= 0) {
+                return number == SMALL_PRIMES[i];
+            }
+        }
+        if (number < SMALL_PRIME_BOUND) {
+            return true;
+        }
+        final Montgomery montgomery = new Montgomery(number);
+        final int shift = Long.numberOfTrailingZeros(number - 1);
+        final long odd = (number - 1) >>> shift;
+        for (long base : BASES) {
+            final long reduced = base % number;
+            if (reduced != 0 && !montgomery.isStrongProbablePrime(reduced, odd, shift)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the inverse of an odd number modulo 2^64.
+     */
+    static long inverse(long odd) {
+        // correct in the lowest 3 bits, every Newton step doubles that
+        long inverse = odd;
+        for (int i = 0; i < 5; i++) {
+            inverse *= 2 - odd * inverse;
+        }
+        return inverse;
+    }
+
+    /**
+     * Arithmetic modulo an odd number below 2^63 on numbers in Montgomery
+     * form, that is, multiplied with R = 2^64.
+     */
+    static final class Montgomery {
+        private final long modulus;
+        private final long inverse;
+        // R mod n and R^2 mod n
+        private final long one;
+        private final long rSquared;
+
+        Montgomery(long modulus) {
+            this.modulus = modulus;
+            this.inverse = inverse(modulus);
+            // -n as unsigned is 2^64 - n
+            this.one = Long.remainderUnsigned(-modulus, modulus);
+            long square = one;
+            for (int i = 0; i < Long.SIZE; i++) {
+                square = add(square, square);
+            }
+            this.rSquared = square;
+        }
+
+        long add(long left, long right) {
+            // both below n < 2^63, so the unsigned sum does not overflow
+            final long sum = left + right;
+            return Long.compareUnsigned(sum, modulus) >= 0 ? sum - modulus : sum;
+        }
+
+        /**
+         * Returns {@code left * right / R mod n} for numbers below n.
+         */
+        long multiply(long left, long right) {
+            final long high = Math.multiplyHigh(left, right);
+            final long quotient = left * right * inverse;
+            // the low halves of both products are equal and cancel out
+            final long result = high - Math.unsignedMultiplyHigh(quotient, modulus);
+            return result < 0 ? result + modulus : result;
+        }
+
+        long toMontgomery(long number) {
+            return multiply(number, rSquared);
+        }
+
+        long pow(long base, long exponent) {
+            long result = one;
+            long power = base;
+            for (long rest = exponent; rest != 0; rest >>>= 1) {
+                if ((rest & 1) != 0) {
+                    result = multiply(result, power);
+                }
+                power = multiply(power, power);
+            }
+            return result;
+        }
+
+        /**
+         * Checks whether n = 2^shift * odd + 1 is a strong probable prime to
+         * the given base, which must be below n and not zero.
+         */
+        boolean isStrongProbablePrime(long base, long odd, int shift) {
+            final long minusOne = modulus - one;
+            long x = pow(toMontgomery(base), odd);
+            if (x == one || x == minusOne) {
+                return true;
+            }
+            for (int i = 1; i < shift; i++) {
+                x = multiply(x, x);
+                if (x == minusOne) {
+                    return true;
+                }
+                if (x == one) {
+                    return false;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package sebfisch.parallel;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Finds primes in ranges of any longs by testing every odd number with
+ * {@link MillerRabin}, for ranges too sparse or too high to sieve with
+ * {@link PrimeSieve}, like ranges near 2^63.
+ *
+ * Ranges are split with fork/join tasks until they are small enough to be
+ * scanned sequentially. The tasks run in the pool of the calling worker
+ * thread, or in the common pool if the caller is no worker, so scans can be
+ * isolated with {@link ForkJoinPools#invoke}.
+ */
+public final class PrimeScanner {
+    // a few milliseconds of work near 2^63
+    static final long SEQUENTIAL_LENGTH = 1 << 13;
+
+    private PrimeScanner() {
+    }
+
+    /**
+     * Returns the primes p with {@code from <= p < to} in ascending order.
+     */
+    public static long[] primes(long from, long to) {
+        final long start = Math.max(from, 2);
+        return start < to ? new ScanTask(start, to).invoke() : new long[0];
+    }
+
+    /**
+     * Returns the number of primes p with {@code from <= p < to}.
+     */
+    public static long countPrimes(long from, long to) {
+        final long start = Math.max(from, 2);
+        return start < to ? new CountTask(start, to).invoke() : 0;
+    }
+
+    /**
+     * Returns the smallest prime that is at least the given number.
+     *
+     * @throws ArithmeticException if there is no such prime below 2^63
+     */
+    public static long nextPrime(long number) {
+        if (number <= 2) {
+            return 2;
+        }
+        // prime gaps below 2^63 are shorter than 1500, so this is quick
+        for (long odd = number | 1; odd > 0; odd += 2) {
+            if (MillerRabin.isPrime(odd)) {
+                return odd;
+            }
+        }
+        throw new ArithmeticException("No prime from %d below 2^63".formatted(number));
+    }
+
+    // from and to are at least 2, so that their difference does not overflow,
+    // and odd numbers below to are at most Long.MAX_VALUE - 2
+    private static final class ScanTask extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+
+        ScanTask(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (to - from <= SEQUENTIAL_LENGTH) {
+                return scan();
+            }
+            final long middle = from + (to - from) / 2;
+            final ScanTask lower = new ScanTask(from, middle);
+            lower.fork();
+            final long[] upper = new ScanTask(middle, to).compute();
+            final long[] primes = lower.join();
+            final long[] all = Arrays.copyOf(primes, primes.length + upper.length);
+            System.arraycopy(upper, 0, all, primes.length, upper.length);
+            return all;
+        }
+
+        private long[] scan() {
+            long[] primes = new long[16];
+            int count = 0;
+            if (from == 2) {
+                primes[count++] = 2;
+            }
+            for (long odd = from | 1; odd < to; odd += 2) {
+                if (MillerRabin.isPrime(odd)) {
+                    if (count == primes.length) {
+                        primes = Arrays.copyOf(primes, 2 * count);
+                    }
+                    primes[count++] = odd;
+                }
+            }
+            return Arrays.copyOf(primes, count);
+        }
+    }
+
+    private static final class CountTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+
+        CountTask(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= SEQUENTIAL_LENGTH) {
+                long count = from == 2 ? 1 : 0;
+                for (long odd = from | 1; odd < to; odd += 2) {
+                    if (MillerRabin.isPrime(odd)) {
+                        count++;
+                    }
+                }
+                return count;
+            }
+            final long middle = from + (to - from) / 2;
+            final CountTask lower = new CountTask(from, middle);
+            lower.fork();
+            final long upper = new CountTask(middle, to).compute();
+            return lower.join() + upper;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package sebfisch.parallel;
+
+import java.util.stream.LongStream;
+
+/**
+ * Counts and enumerates primes in ranges with a segmented sieve of
+ * Eratosthenes.
+ *
+ * Only odd numbers are represented, one bit each, in segments that fit into
+ * the level 1 cache. Multiples of the primes up to 13 are not crossed off but
+ * copied from a precomputed pattern. Segments are sieved in parallel in
+ * chunks of consecutive segments, so that each chunk computes the first
+ * multiple of every sieving prime only once.
+ */
+public final class PrimeSieve {
+    /** The largest supported upper bound of a range. */
+    public static final long MAX_BOUND = 1L << 48;
+
+    // 32 KiB per segment, the size of a typical level 1 data cache
+    static final int SEGMENT_WORDS = 1 << 12;
+    static final int SEGMENT_BITS = SEGMENT_WORDS * Long.SIZE;
+    private static final int MAX_CHUNK_SEGMENTS = 64;
+    // small chunks limit the memory for enumerated primes
+    private static final int ENUMERATION_CHUNK_SEGMENTS = 4;
+
+    private static final int[] PRESIEVED_PRIMES = { 3, 5, 7, 11, 13 };
+    private static final int FIRST_SIEVING_PRIME = 17;
+    private static final int PRESIEVE_PERIOD = 3 * 5 * 7 * 11 * 13;
+    // bit j is set if the odd number 2j+1 is a multiple of a presieved prime;
+    // the word sequence repeats after PRESIEVE_PERIOD words
+    private static final long[] PRESIEVE_PATTERN = new long[PRESIEVE_PERIOD];
+
+    static {
+        for (int prime : PRESIEVED_PRIMES) {
+            // the odd multiples of p are p, 3p, 5p, ..., their bit indices are p apart
+            for (long bit = prime / 2; bit < (long) PRESIEVE_PERIOD * Long.SIZE; bit += prime) {
+                PRESIEVE_PATTERN[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+    }
+
+    private PrimeSieve() {
+    }
+
+    /**
+     * Returns the number of primes p with {@code from <= p < to}, sieving
+     * segments in parallel.
+     *
+     * @throws IllegalArgumentException if {@code to} exceeds {@link #MAX_BOUND}
+     */
+    public static long countPrimes(long from, long to) {
+        checkBounds(from, to);
+        final long bitFrom = Math.max(from, 0) / 2;
+        final long bitTo = to / 2;
+        long count = from <= 2 && 2 < to ? 1 : 0;
+        if (bitFrom >= bitTo) {
+            return count;
+        }
+        final int[] sievingPrimes = sievingPrimes(to);
+        final long firstSegment = bitFrom / SEGMENT_BITS;
+        final long segments = (bitTo - 1) / SEGMENT_BITS - firstSegment + 1;
+        final int chunkSegments = (int) Math.max(1, Math.min(MAX_CHUNK_SEGMENTS,
+                segments / (8L * Runtime.getRuntime().availableProcessors())));
+        final long chunks = Math.ceilDiv(segments, chunkSegments);
+        count += LongStream.range(0, chunks).parallel().map(chunk -> {
+            final long start = firstSegment + chunk * chunkSegments;
+            final long end = Math.min(start + chunkSegments, firstSegment + segments);
+            final Segment segment = new Segment(sievingPrimes);
+            long primes = 0;
+            for (long index = start; index < end; index++) {
+                segment.sieve(index);
+                primes += segment.countUnmarked(bitFrom, bitTo);
+            }
+            return primes;
+        }).sum();
+        return count;
+    }
+
+    /**
+     * Returns the primes p with {@code from <= p < to} in ascending order.
+     * Segments are sieved lazily, and in parallel if the stream is made
+     * parallel.
+     *
+     * @throws IllegalArgumentException if {@code to} exceeds {@link #MAX_BOUND}
+     */
+    public static LongStream primes(long from, long to) {
+        checkBounds(from, to);
+        final long bitFrom = Math.max(from, 0) / 2;
+        final long bitTo = to / 2;
+        final LongStream two = from <= 2 && 2 < to ? LongStream.of(2) : LongStream.empty();
+        if (bitFrom >= bitTo) {
+            return two;
+        }
+        final int[] sievingPrimes = sievingPrimes(to);
+        final long firstSegment = bitFrom / SEGMENT_BITS;
+        final long segments = (bitTo - 1) / SEGMENT_BITS - firstSegment + 1;
+        final long chunks = Math.ceilDiv(segments, ENUMERATION_CHUNK_SEGMENTS);
+        return LongStream.concat(two, LongStream.range(0, chunks).flatMap(chunk -> {
+            final long start = firstSegment + chunk * ENUMERATION_CHUNK_SEGMENTS;
+            final long end = Math.min(start + ENUMERATION_CHUNK_SEGMENTS, firstSegment + segments);
+            final Segment segment = new Segment(sievingPrimes);
+            final LongStream.Builder primes = LongStream.builder();
+            for (long index = start; index < end; index++) {
+                segment.sieve(index);
+                segment.addUnmarked(bitFrom, bitTo, primes);
+            }
+            return primes.build();
+        }));
+    }
+
+    private static void checkBounds(long from, long to) {
+        if (to > MAX_BOUND) {
+            throw new IllegalArgumentException("Upper bound must be at most %d".formatted(MAX_BOUND));
+        }
+    }
+
+    /**
+     * Returns the odd primes from 17 up to the square root of the largest
+     * number below the given bound.
+     */
+    static int[] sievingPrimes(long bound) {
+        final int limit = (int) isqrt(Math.max(bound - 1, 0));
+        // composite[i] refers to the odd number 2i+1
+        final boolean[] composite = new boolean[limit / 2 + 1];
+        int count = 0;
+        for (int i = 1; i < composite.length; i++) {
+            if (composite[i]) {
+                continue;
+            }
+            final long prime = 2L * i + 1;
+            if (prime >= FIRST_SIEVING_PRIME) {
+                count++;
+            }
+            for (long j = prime * prime / 2; j < composite.length; j += prime) {
+                composite[(int) j] = true;
+            }
+        }
+        final int[] primes = new int[count];
+        int next = 0;
+        for (int i = FIRST_SIEVING_PRIME / 2; i < composite.length; i++) {
+            if (!composite[i]) {
+                primes[next++] = 2 * i + 1;
+            }
+        }
+        return primes;
+    }
+
+    static long isqrt(long number) {
+        long root = (long) Math.sqrt(number);
+        // divisions instead of multiplications avoid overflow
+        while (root > 0 && root > number / root) {
+            root--;
+        }
+        while (root + 1 <= number / (root + 1)) {
+            root++;
+        }
+        return root;
+    }
+
+    /**
+     * Bits of the odd numbers in one segment, set for composites. Sieving
+     * consecutive segments reuses the next multiple of every sieving prime.
+     */
+    private static final class Segment {
+        private final long[] words = new long[SEGMENT_WORDS];
+        private final int[] sievingPrimes;
+        // bit index of the next odd multiple of each sieving prime
+        private final long[] nextMultiples;
+        private long firstBit = -1;
+
+        Segment(int[] sievingPrimes) {
+            this.sievingPrimes = sievingPrimes;
+            this.nextMultiples = new long[sievingPrimes.length];
+        }
+
+        void sieve(long index) {
+            final long start = index * SEGMENT_BITS;
+            final long end = start + SEGMENT_BITS;
+            if (start != firstBit + SEGMENT_BITS || firstBit < 0) {
+                initNextMultiples(start);
+            }
+            firstBit = start;
+            presieve(start);
+            for (int i = 0; i < sievingPrimes.length; i++) {
+                final long next = nextMultiples[i];
+                if (next >= end) {
+                    continue;
+                }
+                final int prime = sievingPrimes[i];
+                int offset = (int) (next - start);
+                for (; offset < SEGMENT_BITS; offset += prime) {
+                    words[offset >>> 6] |= 1L << offset;
+                }
+                nextMultiples[i] = start + offset;
+            }
+        }
+
+        private void initNextMultiples(long startBit) {
+            final long startNumber = 2 * startBit + 1;
+            for (int i = 0; i < sievingPrimes.length; i++) {
+                final long prime = sievingPrimes[i];
+                long multiple = Math.max(prime * prime, Math.ceilDiv(startNumber, prime) * prime);
+                if (multiple % 2 == 0) {
+                    multiple += prime;
+                }
+                nextMultiples[i] = multiple / 2;
+            }
+        }
+
+        private void presieve(long startBit) {
+            int from = (int) ((startBit >>> 6) % PRESIEVE_PERIOD);
+            int copied = 0;
+            while (copied < SEGMENT_WORDS) {
+                final int length = Math.min(SEGMENT_WORDS - copied, PRESIEVE_PERIOD - from);
+                System.arraycopy(PRESIEVE_PATTERN, from, words, copied, length);
+                copied += length;
+                from = 0;
+            }
+            if (startBit == 0) {
+                words[0] |= 1L; // 1 is not prime
+                for (int prime : PRESIEVED_PRIMES) {
+                    words[0] &= ~(1L << (prime / 2));
+                }
+            }
+        }
+
+        long countUnmarked(long bitFrom, long bitTo) {
+            final int from = (int) (Math.max(bitFrom, firstBit) - firstBit);
+            final int to = (int) (Math.min(bitTo, firstBit + SEGMENT_BITS) - firstBit);
+            if (from >= to) {
+                return 0;
+            }
+            final int firstWord = from >>> 6;
+            final int lastWord = (to - 1) >>> 6;
+            long count = 0;
+            for (int w = firstWord; w <= lastWord; w++) {
+                long unmarked = ~words[w];
+                if (w == firstWord) {
+                    unmarked &= -1L << from;
+                }
+                if (w == lastWord) {
+                    unmarked &= -1L >>> (Long.SIZE - 1 - ((to - 1) & 63));
+                }
+                count += Long.bitCount(unmarked);
+            }
+            return count;
+        }
+
+        void addUnmarked(long bitFrom, long bitTo, LongStream.Builder primes) {
+            final int from = (int) (Math.max(bitFrom, firstBit) - firstBit);
+            final int to = (int) (Math.min(bitTo, firstBit + SEGMENT_BITS) - firstBit);
+            if (from >= to) {
+                return;
+            }
+            final int firstWord = from >>> 6;
+            final int lastWord = (to - 1) >>> 6;
+            for (int w = firstWord; w <= lastWord; w++) {
+                long unmarked = ~words[w];
+                if (w == firstWord) {
+                    unmarked &= -1L << from;
+                }
+                if (w == lastWord) {
+                    unmarked &= -1L >>> (Long.SIZE - 1 - ((to - 1) & 63));
+                }
+                while (unmarked != 0) {
+                    final long bit = firstBit + 64L * w + Long.numberOfTrailingZeros(unmarked);
+                    primes.add(2 * bit + 1);
+                    unmarked &= unmarked - 1;
+                }
+            }
+        }
+    }
+}
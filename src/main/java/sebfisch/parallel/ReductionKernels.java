@@ -0,0 +1,25 @@
+package sebfisch.parallel;
+
+/**
+ * Sequential reductions over the elements of an array from index
+ * {@code from} (inclusive) to {@code to} (exclusive), which
+ * {@link ArrayReductions} applies to the chunks of an array in parallel.
+ * Products and sums wrap around on overflow like Java arithmetic.
+ */
+interface ReductionKernels {
+    long sum(long[] values, int from, int to);
+
+    long sum(int[] values, int from, int to);
+
+    long min(long[] values, int from, int to);
+
+    int min(int[] values, int from, int to);
+
+    long max(long[] values, int from, int to);
+
+    int max(int[] values, int from, int to);
+
+    long dot(long[] left, long[] right, int from, int to);
+
+    long dot(int[] left, int[] right, int from, int to);
+}
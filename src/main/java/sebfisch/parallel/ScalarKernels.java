@@ -0,0 +1,79 @@
+package sebfisch.parallel;
+
+/**
+ * Plain loops, which the JIT compiler may still vectorize on its own. Used
+ * if the Vector API is not available.
+ */
+final class ScalarKernels implements ReductionKernels {
+    @Override
+    public long sum(long[] values, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public long sum(int[] values, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public long min(long[] values, int from, int to) {
+        long min = Long.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public int min(int[] values, int from, int to) {
+        int min = Integer.MAX_VALUE;
+        for (int i = from; i < to; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public long max(long[] values, int from, int to) {
+        long max = Long.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public int max(int[] values, int from, int to) {
+        int max = Integer.MIN_VALUE;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public long dot(long[] left, long[] right, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += left[i] * right[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public long dot(int[] left, int[] right, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += (long) left[i] * right[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,162 @@
+package sebfisch.parallel;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Reductions with the incubating Vector API, which accumulate one partial
+ * result per lane and combine the lanes only at the end. Elements after the
+ * last full vector are reduced in a scalar loop.
+ *
+ * Loading this class fails unless the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}.
+ */
+final class VectorKernels implements ReductionKernels {
+    static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED;
+    // as many int lanes as there are long lanes, for widening before adding;
+    // there is no shape for a single int, so null if vectors hold one long
+    static final VectorSpecies<Integer> WIDENED_INTS = isProfitable()
+            ? VectorSpecies.of(int.class, VectorShape.forBitSize(LONGS.vectorBitSize() / 2))
+            : null;
+
+    /**
+     * Returns whether vectors hold more than one long on this platform, so
+     * that these kernels beat the scalar ones. Otherwise they must not be
+     * used.
+     */
+    static boolean isProfitable() {
+        return LONGS.length() > 1;
+    }
+
+    @Override
+    public long sum(long[] values, int from, int to) {
+        final int bound = from + LONGS.loopBound(to - from);
+        LongVector sums = LongVector.zero(LONGS);
+        int i = from;
+        for (; i < bound; i += LONGS.length()) {
+            sums = sums.add(LongVector.fromArray(LONGS, values, i));
+        }
+        long sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public long sum(int[] values, int from, int to) {
+        final int bound = from + WIDENED_INTS.loopBound(to - from);
+        LongVector sums = LongVector.zero(LONGS);
+        int i = from;
+        for (; i < bound; i += WIDENED_INTS.length()) {
+            sums = sums.add(widened(values, i));
+        }
+        long sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public long min(long[] values, int from, int to) {
+        final int bound = from + LONGS.loopBound(to - from);
+        LongVector mins = LongVector.broadcast(LONGS, Long.MAX_VALUE);
+        int i = from;
+        for (; i < bound; i += LONGS.length()) {
+            mins = mins.min(LongVector.fromArray(LONGS, values, i));
+        }
+        long min = mins.reduceLanes(VectorOperators.MIN);
+        for (; i < to; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public int min(int[] values, int from, int to) {
+        final int bound = from + INTS.loopBound(to - from);
+        IntVector mins = IntVector.broadcast(INTS, Integer.MAX_VALUE);
+        int i = from;
+        for (; i < bound; i += INTS.length()) {
+            mins = mins.min(IntVector.fromArray(INTS, values, i));
+        }
+        int min = mins.reduceLanes(VectorOperators.MIN);
+        for (; i < to; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public long max(long[] values, int from, int to) {
+        final int bound = from + LONGS.loopBound(to - from);
+        LongVector maxs = LongVector.broadcast(LONGS, Long.MIN_VALUE);
+        int i = from;
+        for (; i < bound; i += LONGS.length()) {
+            maxs = maxs.max(LongVector.fromArray(LONGS, values, i));
+        }
+        long max = maxs.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public int max(int[] values, int from, int to) {
+        final int bound = from + INTS.loopBound(to - from);
+        IntVector maxs = IntVector.broadcast(INTS, Integer.MIN_VALUE);
+        int i = from;
+        for (; i < bound; i += INTS.length()) {
+            maxs = maxs.max(IntVector.fromArray(INTS, values, i));
+        }
+        int max = maxs.reduceLanes(VectorOperators.MAX);
+        for (; i < to; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public long dot(long[] left, long[] right, int from, int to) {
+        final int bound = from + LONGS.loopBound(to - from);
+        LongVector sums = LongVector.zero(LONGS);
+        int i = from;
+        for (; i < bound; i += LONGS.length()) {
+            sums = LongVector.fromArray(LONGS, left, i)
+                    .mul(LongVector.fromArray(LONGS, right, i))
+                    .add(sums);
+        }
+        long sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += left[i] * right[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public long dot(int[] left, int[] right, int from, int to) {
+        final int bound = from + WIDENED_INTS.loopBound(to - from);
+        LongVector sums = LongVector.zero(LONGS);
+        int i = from;
+        for (; i < bound; i += WIDENED_INTS.length()) {
+            // products of ints would overflow in int lanes
+            sums = widened(left, i).mul(widened(right, i)).add(sums);
+        }
+        long sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < to; i++) {
+            sum += (long) left[i] * right[i];
+        }
+        return sum;
+    }
+
+    private static LongVector widened(int[] values, int offset) {
+        return (LongVector) IntVector.fromArray(WIDENED_INTS, values, offset)
+                .convertShape(VectorOperators.I2L, LONGS, 0);
+    }
+}
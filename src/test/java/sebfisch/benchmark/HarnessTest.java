@@ -0,0 +1,91 @@
+package sebfisch.benchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class HarnessTest {
+    @Test
+    public void testThatWarmupIterationsAreNotMeasured() {
+        final Harness harness = new Harness(2, 5, null);
+        final AtomicInteger calls = new AtomicInteger();
+        final Result result = harness.measure("count", calls::incrementAndGet);
+        assertEquals(7, calls.get());
+        assertEquals(5, result.iterations());
+        assertEquals("7", result.value());
+        assertEquals(1, harness.results().size());
+    }
+
+    @Test
+    public void testStatistics() {
+        final Result result = Result.of("test", new long[] { 50, 10, 40, 20, 30 }, 0, 0, 500, null);
+        assertEquals(30, result.medianNanos());
+        assertEquals(50, result.p90Nanos());
+        assertEquals(30.0, result.meanNanos());
+        assertEquals(Math.sqrt(250), result.stddevNanos(), 1e-9);
+        assertEquals(10, result.minNanos());
+        assertEquals(50, result.maxNanos());
+        assertEquals(100, result.allocatedBytesPerIteration());
+        assertEquals(0.0, Result.of("single", new long[] { 7 }, 0, 0, 0, null).stddevNanos());
+    }
+
+    @Test
+    public void testPercentilesAreSamples() {
+        final long[] sorted = new long[100];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i + 1;
+        }
+        assertEquals(50, Result.percentile(sorted, 50));
+        assertEquals(90, Result.percentile(sorted, 90));
+        assertEquals(1, Result.percentile(sorted, 0));
+        assertEquals(100, Result.percentile(sorted, 100));
+    }
+
+    @Test
+    public void testCsvAndJsonEscaping() throws IOException {
+        final Harness harness = new Harness(0, 1, null);
+        harness.measure("a, \"b\"", () -> "x\ny");
+        final StringBuilder csv = new StringBuilder();
+        harness.writeCsv(csv);
+        final String[] lines = csv.toString().split("\n", 2);
+        assertEquals(Result.CSV_HEADER, lines[0]);
+        assertTrue(lines[1].startsWith("\"a, \"\"b\"\"\",1,"), lines[1]);
+        assertTrue(lines[1].endsWith(",\"x\ny\"\n"), lines[1]);
+
+        final StringBuilder json = new StringBuilder();
+        harness.writeJson(json);
+        assertTrue(json.toString().contains("\"label\":\"a, \\\"b\\\"\""), json.toString());
+        assertTrue(json.toString().contains("\"value\":\"x\\ny\""), json.toString());
+    }
+
+    @Test
+    public void testThatReportFormatFollowsFileExtension() throws IOException {
+        final Path directory = Files.createTempDirectory("harness");
+        try {
+            for (String name : new String[] { "report.json", "report.csv" }) {
+                final Harness harness = new Harness(0, 1, directory.resolve(name));
+                harness.measure("constant", () -> 42);
+                harness.writeReport();
+                final String report = Files.readString(directory.resolve(name));
+                assertTrue(name.endsWith(".json") ? report.startsWith("[") : report.startsWith("label,"), report);
+            }
+        } finally {
+            Files.deleteIfExists(directory.resolve("report.json"));
+            Files.deleteIfExists(directory.resolve("report.csv"));
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testThatInvalidIterationsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new Harness(-1, 1, null));
+        assertThrows(IllegalArgumentException.class, () -> new Harness(0, 0, null));
+    }
+}
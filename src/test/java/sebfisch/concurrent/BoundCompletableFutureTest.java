@@ -0,0 +1,70 @@
+package sebfisch.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class BoundCompletableFutureTest {
+    @Test
+    public void testThatAsyncStagesRunOnBoundExecutor() {
+        try (final ExecutorService executor = new SingleThreadExecutorService()) {
+            final Thread worker = BoundCompletableFuture.supplyAsync(Thread::currentThread, executor).join();
+            final CompletableFuture<Thread> stages = BoundCompletableFuture.completedFuture(1, executor)
+                    .thenApplyAsync(n -> n + 1)
+                    .thenComposeAsync(n -> CompletableFuture.completedFuture(n * 2))
+                    .thenApplyAsync(n -> Thread.currentThread());
+            assertSame(worker, stages.join());
+            assertInstanceOf(BoundCompletableFuture.class, stages);
+            assertSame(executor, stages.defaultExecutor());
+        }
+    }
+
+    @Test
+    public void testThatDependentFuturesStayBound() {
+        final AtomicInteger executed = new AtomicInteger();
+        final BoundCompletableFuture<Integer> future = new BoundCompletableFuture<>(task -> {
+            executed.incrementAndGet();
+            task.run();
+        });
+        final CompletableFuture<Integer> result = future
+                .thenApply(n -> n + 1)
+                .exceptionally(failure -> -1)
+                .thenApplyAsync(n -> n * 2)
+                .copy()
+                .thenCombineAsync(CompletableFuture.completedFuture(1), Integer::sum);
+        future.complete(20);
+        assertEquals(43, result.join());
+        assertEquals(2, executed.get());
+    }
+
+    @Test
+    public void testRunAsyncAndFailures() {
+        try (final ExecutorService executor = new SingleThreadExecutorService()) {
+            final CompletableFuture<Void> failed = BoundCompletableFuture.runAsync(() -> {
+                throw new IllegalStateException("expected");
+            }, executor);
+            final CompletionException failure = assertThrows(CompletionException.class, failed::join);
+            assertEquals("expected", failure.getCause().getMessage());
+            assertEquals("recovered", failed.handleAsync((result, exception) -> "recovered").join());
+        }
+    }
+
+    @Test
+    public void testBindingAnExistingStage() {
+        try (final ExecutorService executor = new SingleThreadExecutorService()) {
+            final CompletableFuture<Void> all = CompletableFuture.allOf(
+                    CompletableFuture.completedFuture(1), CompletableFuture.completedFuture(2));
+            final BoundCompletableFuture<Void> bound = BoundCompletableFuture.bind(all, executor);
+            final Thread worker = BoundCompletableFuture.supplyAsync(Thread::currentThread, executor).join();
+            assertSame(worker, bound.thenApplyAsync(ignored -> Thread.currentThread()).join());
+        }
+    }
+}
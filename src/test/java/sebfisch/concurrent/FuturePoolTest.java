@@ -0,0 +1,107 @@
+package sebfisch.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+public class FuturePoolTest {
+    @Test
+    public void testThatResultsAreDelivered() throws InterruptedException, ExecutionException {
+        final int taskCount = 10_000;
+        try (final ExecutorService executor = new SingleThreadExecutorService()) {
+            final FuturePool pool = new FuturePool(executor);
+            final List<PooledFuture<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < taskCount; i++) {
+                final int n = i;
+                futures.add(pool.submit(() -> n));
+            }
+            for (int i = 0; i < taskCount; i++) {
+                assertEquals(i, futures.get(i).take());
+            }
+        }
+    }
+
+    @Test
+    public void testThatTakenFuturesAreReused() throws InterruptedException, ExecutionException {
+        try (final ExecutorService executor = new SingleThreadExecutorService()) {
+            final FuturePool pool = new FuturePool(executor);
+            final PooledFuture<Integer> first = pool.submit(() -> 1);
+            assertEquals(1, first.take());
+            final PooledFuture<Integer> second = pool.submit(() -> 2);
+            assertSame(first, second);
+            assertEquals(2, second.take());
+        }
+    }
+
+    @Test
+    public void testFailedTask() throws InterruptedException, ExecutionException {
+        try (final ExecutorService executor = new SingleThreadExecutorService()) {
+            final FuturePool pool = new FuturePool(executor);
+            final PooledFuture<Integer> failed = pool.submit(() -> {
+                throw new IllegalStateException();
+            });
+            final ExecutionException exception = assertThrows(ExecutionException.class, failed::take);
+            assertTrue(exception.getCause() instanceof IllegalStateException);
+            assertEquals(3, pool.submit(() -> 3).take());
+        }
+    }
+
+    @Test
+    public void testThatCancelledFuturesAreNotReused() throws InterruptedException, ExecutionException {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (final ExecutorService executor = new SingleThreadExecutorService()) {
+            final FuturePool pool = new FuturePool(executor);
+            final PooledFuture<Boolean> blocking = pool.submit(() -> release.await(1, TimeUnit.MINUTES));
+            final PooledFuture<Integer> cancelled = pool.submit(() -> 1);
+            assertTrue(cancelled.cancel(false));
+            assertTrue(cancelled.isCancelled());
+            assertThrows(CancellationException.class, cancelled::take);
+            release.countDown();
+            assertTrue(blocking.take());
+            assertNotSame(cancelled, pool.submit(() -> 2));
+        }
+    }
+
+    @Test
+    public void testTimedGet() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (final ExecutorService executor = new SingleThreadExecutorService()) {
+            final FuturePool pool = new FuturePool(executor);
+            final PooledFuture<Boolean> future = pool.submit(() -> release.await(1, TimeUnit.MINUTES));
+            assertThrows(TimeoutException.class, () -> future.get(10, TimeUnit.MILLISECONDS));
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testRejectedSubmission() {
+        try (final ExecutorService executor = new SingleThreadExecutorService()) {
+            final FuturePool pool = new FuturePool(executor);
+            executor.shutdown();
+            assertThrows(RejectedExecutionException.class, () -> pool.submit(() -> 1));
+        }
+    }
+
+    @Test
+    public void testWithNewThreadPerTaskExecutor() throws InterruptedException, ExecutionException {
+        final NewThreadPerTaskExecutor executor = NewThreadPerTaskExecutor.newVirtualThreadPerTaskExecutor();
+        final FuturePool pool = new FuturePool(executor);
+        assertEquals(42, pool.submit(() -> 42).take());
+        executor.shutdown();
+        executor.awaitTermination();
+    }
+}
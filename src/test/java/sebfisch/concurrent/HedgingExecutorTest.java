@@ -0,0 +1,138 @@
+package sebfisch.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class HedgingExecutorTest {
+    private final NewThreadPerTaskExecutor executor = new NewThreadPerTaskExecutor();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    public void shutdown() throws InterruptedException {
+        timer.shutdownNow();
+        executor.shutdownNow();
+        executor.awaitTermination();
+    }
+
+    private HedgingExecutor hedging(double hedgeRatio) {
+        return new HedgingExecutor(executor, timer, 95, hedgeRatio, Duration.ofMillis(20));
+    }
+
+    @Test
+    public void testThatSlowAttemptIsHedgedAndInterrupted()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        final HedgingExecutor hedging = hedging(1);
+        final AtomicInteger attempts = new AtomicInteger();
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final CompletableFuture<String> result = hedging.submit("read", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                try {
+                    TimeUnit.SECONDS.sleep(10);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+                return "primary";
+            }
+            return "hedge";
+        });
+        assertEquals("hedge", result.get(1, TimeUnit.SECONDS));
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        assertEquals(1, hedging.getHedgeCount());
+    }
+
+    @Test
+    public void testThatFastAttemptsAreNotHedged() throws InterruptedException, ExecutionException {
+        final HedgingExecutor hedging = hedging(1);
+        final AtomicInteger attempts = new AtomicInteger();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(i, hedging.submit("read", attempts::getAndIncrement).get());
+        }
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertEquals(10, attempts.get());
+        assertEquals(0, hedging.getHedgeCount());
+    }
+
+    @Test
+    public void testThatHedgesAreLimitedByBudget() throws InterruptedException, ExecutionException {
+        final HedgingExecutor hedging = hedging(0.5);
+        final AtomicInteger attempts = new AtomicInteger();
+        final CompletableFuture<?>[] results = new CompletableFuture<?>[4];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = hedging.submit("slow", () -> {
+                attempts.incrementAndGet();
+                TimeUnit.MILLISECONDS.sleep(100);
+                return null;
+            });
+        }
+        CompletableFuture.allOf(results).get();
+        assertEquals(2, hedging.getHedgeCount());
+        assertEquals(6, attempts.get());
+    }
+
+    @Test
+    public void testThatHedgeDelayFollowsRecentLatencies() throws InterruptedException, ExecutionException {
+        final HedgingExecutor hedging = hedging(0);
+        assertEquals(Duration.ofMillis(20), hedging.getHedgeDelay("read"));
+        for (int i = 0; i < HedgingExecutor.WINDOW_SIZE; i++) {
+            hedging.submit("read", () -> null).get();
+        }
+        assertTrue(hedging.getHedgeDelay("read").compareTo(Duration.ofMillis(20)) < 0);
+        assertEquals(Duration.ofMillis(20), hedging.getHedgeDelay("write"));
+    }
+
+    @Test
+    public void testThatFailuresAreNotRetried() throws InterruptedException {
+        final HedgingExecutor hedging = hedging(1);
+        final AtomicInteger attempts = new AtomicInteger();
+        final CompletableFuture<Object> result = hedging.submit("read", () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("expected");
+        });
+        final ExecutionException failure = assertThrows(ExecutionException.class, result::get);
+        assertEquals("expected", failure.getCause().getMessage());
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void testThatCancellingInterruptsAttempts() throws InterruptedException {
+        final HedgingExecutor hedging = hedging(0);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final CompletableFuture<Object> result = hedging.submit("read", () -> {
+            started.countDown();
+            try {
+                TimeUnit.SECONDS.sleep(10);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        });
+        started.await();
+        result.cancel(false);
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new HedgingExecutor(executor, timer, 0, 0.1, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class,
+                () -> new HedgingExecutor(executor, timer, 99, 1.5, Duration.ZERO));
+    }
+}
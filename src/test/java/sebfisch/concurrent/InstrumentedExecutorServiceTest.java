@@ -0,0 +1,143 @@
+package sebfisch.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+public class InstrumentedExecutorServiceTest {
+    @Test
+    public void testThatCompletedAndFailedTasksAreCounted() throws InterruptedException {
+        final InstrumentedExecutorService executor = new InstrumentedExecutorService(
+                new SingleThreadExecutorService());
+        final ExecutorMetrics metrics = executor.getMetrics();
+        for (int i = 0; i < 10; i++) {
+            executor.execute(() -> {
+            });
+        }
+        final Future<?> failing = executor.submit(() -> {
+            throw new IllegalStateException("expected");
+        });
+        assertThrows(ExecutionException.class, failing::get);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(11, metrics.getSubmittedTaskCount());
+        assertEquals(11, metrics.getCompletedTaskCount());
+        assertEquals(1, metrics.getFailedTaskCount());
+        assertEquals(0, metrics.getQueueDepth());
+    }
+
+    @Test
+    public void testQueueDepthAndLatencies() throws InterruptedException {
+        final InstrumentedExecutorService executor = new InstrumentedExecutorService(
+                new SingleThreadExecutorService());
+        final ExecutorMetrics metrics = executor.getMetrics();
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                blocked.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+        for (int i = 0; i < 5; i++) {
+            executor.execute(() -> {
+            });
+        }
+        assertEquals(5, metrics.getQueueDepth());
+        Thread.sleep(20);
+        blocked.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(0, metrics.getQueueDepth());
+        assertTrue(metrics.getQueueWaitMax() >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(metrics.getQueueWaitP99() >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(metrics.getExecutionTimeMax() >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(metrics.getExecutionTimeP50() < metrics.getExecutionTimeMax());
+        metrics.resetLatencies();
+        assertEquals(0, metrics.getQueueWaitMax());
+        assertEquals(6, metrics.getCompletedTaskCount());
+    }
+
+    @Test
+    public void testThatRejectedTasksAreCounted() {
+        final InstrumentedExecutorService executor = new InstrumentedExecutorService(
+                new SingleThreadExecutorService());
+        executor.shutdown();
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+        }));
+        assertEquals(1, executor.getMetrics().getRejectedTaskCount());
+        assertEquals(0, executor.getMetrics().getSubmittedTaskCount());
+    }
+
+    @Test
+    public void testThatShutdownNowReturnsOriginalTasks() throws InterruptedException {
+        final InstrumentedExecutorService executor = new InstrumentedExecutorService(
+                Executors.newSingleThreadExecutor());
+        final CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+        final Runnable waiting = () -> {
+        };
+        executor.execute(waiting);
+        final List<Runnable> remaining = executor.shutdownNow();
+        assertEquals(1, remaining.size());
+        assertSame(waiting, remaining.get(0));
+        assertEquals(0, executor.getMetrics().getQueueDepth());
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testInstrumentedPlainExecutor() throws InterruptedException {
+        final ExecutorMetrics metrics = new ExecutorMetrics();
+        final Executor executor = metrics.instrument(new NewThreadPerTaskExecutor());
+        final CountDownLatch done = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            executor.execute(done::countDown);
+        }
+        assertTrue(done.await(1, TimeUnit.SECONDS));
+        assertEquals(3, metrics.getSubmittedTaskCount());
+    }
+
+    @Test
+    public void testThatMetricsArePublishedViaJmx() throws Exception {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name;
+        try (InstrumentedExecutorService executor = new InstrumentedExecutorService(
+                new SingleThreadExecutorService(), "test-executor")) {
+            executor.submit(() -> 42).get();
+            name = executor.getMetrics().getObjectName();
+            assertEquals("sebfisch.concurrent", name.getDomain());
+            assertEquals(1L, server.getAttribute(name, "SubmittedTaskCount"));
+            assertThrows(IllegalStateException.class, () -> new ExecutorMetrics().register("test-executor"));
+        }
+        assertTrue(!server.isRegistered(name));
+        assertNull(new ExecutorMetrics().getObjectName());
+    }
+}
@@ -0,0 +1,58 @@
+package sebfisch.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+    @Test
+    public void testThatSmallValuesAreExact() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 50; value++) {
+            histogram.record(value);
+        }
+        assertEquals(50, histogram.count());
+        assertEquals(25, histogram.percentile(50));
+        assertEquals(50, histogram.percentile(100));
+        assertEquals(50, histogram.max());
+    }
+
+    @Test
+    public void testThatBucketsCoverAllValues() {
+        long previousHighest = -1;
+        for (int index = 0; index <= LatencyHistogram.indexOf(Long.MAX_VALUE); index++) {
+            final long highest = LatencyHistogram.highestValueAt(index);
+            assertEquals(index, LatencyHistogram.indexOf(highest));
+            assertEquals(index, LatencyHistogram.indexOf(previousHighest + 1));
+            previousHighest = highest;
+        }
+        assertEquals(Long.MAX_VALUE, previousHighest);
+    }
+
+    @Test
+    public void testRelativeErrorOfPercentiles() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value * 1_000);
+        }
+        final long median = histogram.percentile(50);
+        assertTrue(median >= 50_000_000 && median <= 50_000_000 * 1.04, "median " + median);
+        final long p99 = histogram.percentile(99);
+        assertTrue(p99 >= 99_000_000 && p99 <= 99_000_000 * 1.04, "p99 " + p99);
+        assertEquals(100_000_000, histogram.percentile(100));
+    }
+
+    @Test
+    public void testReset() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(1_000_000);
+        assertEquals(2, histogram.count());
+        assertEquals(0, histogram.percentile(50));
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.max());
+        assertEquals(0, histogram.percentile(99));
+    }
+}
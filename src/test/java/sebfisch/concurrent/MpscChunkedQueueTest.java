@@ -0,0 +1,172 @@
+package sebfisch.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class MpscChunkedQueueTest {
+    @Test
+    public void testThatElementsArePolledInOfferedOrder() {
+        final int elementCount = 3 * MpscChunkedQueue.CHUNK_SIZE + 1;
+        final MpscChunkedQueue<Integer> queue = new MpscChunkedQueue<>();
+        IntStream.range(0, elementCount).forEach(queue::offer);
+        for (int i = 0; i < elementCount; i++) {
+            assertEquals(i, queue.poll());
+        }
+        assertEquals(null, queue.poll());
+    }
+
+    @Test
+    public void testIsEmptyAcrossChunks() {
+        final MpscChunkedQueue<Integer> queue = new MpscChunkedQueue<>();
+        assertTrue(queue.isEmpty());
+        IntStream.range(0, MpscChunkedQueue.CHUNK_SIZE + 1).forEach(queue::offer);
+        for (int i = 0; i < MpscChunkedQueue.CHUNK_SIZE + 1; i++) {
+            assertFalse(queue.isEmpty());
+            queue.poll();
+        }
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testThatBulkOffersKeepTheirOrderAcrossChunks() {
+        final MpscChunkedQueue<Integer> queue = new MpscChunkedQueue<>();
+        queue.offer(-1);
+        final List<Integer> elements = IntStream.range(0, 3 * MpscChunkedQueue.CHUNK_SIZE).boxed().toList();
+        assertEquals(elements.size(), queue.offerAll(elements));
+        assertEquals(-1, queue.poll());
+        for (int i = 0; i < elements.size(); i++) {
+            assertEquals(i, queue.poll());
+        }
+        assertEquals(null, queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testBulkOfferAfterClose() {
+        final MpscChunkedQueue<Integer> queue = new MpscChunkedQueue<>();
+        queue.close();
+        assertEquals(0, queue.offerAll(List.of(1, 2, 3)));
+        assertEquals(null, queue.poll());
+    }
+
+    @Test
+    public void testBulkOfferingConcurrently() throws InterruptedException {
+        final int producerCount = 8;
+        final int batchSize = 100;
+        final int batchesPerProducer = 100;
+        final int elementsPerProducer = batchSize * batchesPerProducer;
+        final MpscChunkedQueue<Integer> queue = new MpscChunkedQueue<>();
+        for (int p = 0; p < producerCount; p++) {
+            final int producer = p;
+            new Thread(() -> {
+                for (int b = 0; b < batchesPerProducer; b++) {
+                    final int first = producer * elementsPerProducer + b * batchSize;
+                    queue.offerAll(IntStream.range(first, first + batchSize).boxed().toList());
+                }
+            }).start();
+        }
+        final int[] expected = IntStream.range(0, producerCount).map(p -> p * elementsPerProducer).toArray();
+        int polled = 0;
+        while (polled < producerCount * elementsPerProducer) {
+            Integer element = queue.poll();
+            if (element == null) {
+                continue;
+            }
+            assertEquals(expected[element / elementsPerProducer]++, element); // FIFO without gaps per producer
+            polled++;
+        }
+        assertEquals(null, queue.poll());
+    }
+
+    @Test
+    public void testOfferAfterClose() {
+        final MpscChunkedQueue<Integer> queue = new MpscChunkedQueue<>();
+        assertTrue(queue.offer(1));
+        queue.close();
+        assertTrue(queue.isClosed());
+        assertFalse(queue.offer(2));
+        assertEquals(1, queue.poll());
+        assertEquals(null, queue.poll());
+    }
+
+    @Test
+    public void testCloseAtChunkBoundary() {
+        final MpscChunkedQueue<Integer> queue = new MpscChunkedQueue<>();
+        IntStream.range(0, MpscChunkedQueue.CHUNK_SIZE).forEach(queue::offer);
+        queue.close();
+        assertFalse(queue.offer(MpscChunkedQueue.CHUNK_SIZE));
+        for (int i = 0; i < MpscChunkedQueue.CHUNK_SIZE; i++) {
+            assertEquals(i, queue.poll());
+        }
+        assertEquals(null, queue.poll());
+    }
+
+    @Test
+    public void testOfferingConcurrently() throws InterruptedException {
+        final int producerCount = 8;
+        final int elementsPerProducer = 10 * MpscChunkedQueue.CHUNK_SIZE;
+        final MpscChunkedQueue<Integer> queue = new MpscChunkedQueue<>();
+        final CountDownLatch done = new CountDownLatch(producerCount);
+        for (int p = 0; p < producerCount; p++) {
+            final int producer = p;
+            new Thread(() -> {
+                for (int i = 0; i < elementsPerProducer; i++) {
+                    queue.offer(producer * elementsPerProducer + i);
+                }
+                done.countDown();
+            }).start();
+        }
+        final List<Integer> lastPerProducer = new ArrayList<>();
+        IntStream.range(0, producerCount).forEach(p -> lastPerProducer.add(-1));
+        int polled = 0;
+        while (polled < producerCount * elementsPerProducer) {
+            Integer element = queue.poll();
+            if (element == null) {
+                continue;
+            }
+            int producer = element / elementsPerProducer;
+            assertTrue(lastPerProducer.get(producer) < element); // FIFO per producer
+            lastPerProducer.set(producer, element);
+            polled++;
+        }
+        done.await();
+        assertEquals(null, queue.poll());
+    }
+
+    @Test
+    public void testClosingWhileOfferingConcurrently() throws InterruptedException {
+        final int producerCount = 8;
+        final MpscChunkedQueue<Integer> queue = new MpscChunkedQueue<>();
+        final int[] accepted = new int[producerCount];
+        final List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < producerCount; p++) {
+            final int producer = p;
+            Thread thread = new Thread(() -> {
+                while (queue.offer(producer)) {
+                    accepted[producer]++;
+                }
+            });
+            producers.add(thread);
+            thread.start();
+        }
+        Thread.sleep(10);
+        queue.close();
+        for (Thread thread : producers) {
+            thread.join();
+        }
+        int acceptedCount = IntStream.of(accepted).sum();
+        int polled = 0;
+        while (queue.poll() != null) {
+            polled++;
+        }
+        assertEquals(acceptedCount, polled);
+    }
+}
@@ -14,6 +14,7 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -381,4 +382,218 @@ public class OwnNewThreadPerTaskExecutorTest {
             assertEquals(i, futures.get(i - 1).get());
         }
     }
+
+    @Test
+    public void testThatThreadFactoryIsUsedForEachTask() throws InterruptedException {
+        final int taskCount = 10;
+        final Set<String> threadNames = new HashSet<>();
+        final NewThreadPerTaskExecutor named = new NewThreadPerTaskExecutor(
+                Thread.ofPlatform().name("worker-", 0).factory());
+        IntStream.range(0, taskCount)
+                .forEach(n -> named.execute(() -> {
+                    synchronized (threadNames) {
+                        threadNames.add(Thread.currentThread().getName());
+                    }
+                }));
+        named.shutdown();
+        named.awaitTermination();
+        assertEquals(taskCount, threadNames.size());
+        assertTrue(threadNames.stream().allMatch(name -> name.startsWith("worker-")));
+    }
+
+    @Test
+    public void testRejectionWithoutThreadFromFactory() {
+        final NewThreadPerTaskExecutor failing = new NewThreadPerTaskExecutor(task -> null);
+        assertThrows(RejectedExecutionException.class, () -> failing.execute(() -> {
+        }));
+    }
+
+    @Test
+    public void testThatWorkersThatFailToStartAreForgotten() throws InterruptedException {
+        final AtomicInteger interruptions = new AtomicInteger();
+        // a thread that is already running cannot be started again
+        final Thread running = Thread.ofPlatform().start(() -> {
+            try {
+                Thread.sleep(500);
+            } catch (InterruptedException e) {
+                interruptions.incrementAndGet();
+            }
+        });
+        final NewThreadPerTaskExecutor failing = new NewThreadPerTaskExecutor(task -> running);
+        assertThrows(IllegalThreadStateException.class, () -> failing.execute(() -> {
+        }));
+        failing.shutdownNow();
+        running.join();
+        assertEquals(0, interruptions.get());
+        assertTrue(failing.isTerminated());
+    }
+
+    @Test
+    public void testThatVirtualThreadsAreUsed() throws InterruptedException, ExecutionException {
+        final NewThreadPerTaskExecutor virtual = NewThreadPerTaskExecutor.newVirtualThreadPerTaskExecutor();
+        assertTrue(virtual.submit(() -> Thread.currentThread().isVirtual()).get());
+        virtual.shutdown();
+        virtual.awaitTermination();
+    }
+
+    @Test
+    public void testImmediateTerminationWithManySleepingVirtualThreads() throws InterruptedException {
+        final int taskCount = 10_000;
+        final NewThreadPerTaskExecutor virtual = NewThreadPerTaskExecutor.newVirtualThreadPerTaskExecutor();
+        final List<CompletableFuture<Void>> futures = IntStream.range(0, taskCount)
+                .mapToObj(n -> virtual.<Void>submit(() -> {
+                    TimeUnit.HOURS.sleep(1);
+                    return null;
+                }))
+                .toList();
+        virtual.shutdownNow(); // causes InterruptedException in sleeping tasks
+        virtual.awaitTermination();
+        assertTrue(virtual.isTerminated());
+        assertTrue(futures.stream().allMatch(CompletableFuture::isCompletedExceptionally));
+    }
+
+    private static Runnable sleepingTask(AtomicInteger running, AtomicInteger maxRunning) {
+        return () -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                TimeUnit.MILLISECONDS.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+        };
+    }
+
+    @Test
+    public void testConcurrencyLimitWithQueue() throws InterruptedException {
+        final int taskCount = 10;
+        final int maxConcurrency = 3;
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final NewThreadPerTaskExecutor limited = new NewThreadPerTaskExecutor(
+                Thread::new, maxConcurrency, NewThreadPerTaskExecutor.Overflow.QUEUE);
+        IntStream.range(0, taskCount)
+                .forEach(n -> limited.execute(sleepingTask(running, maxRunning)));
+        limited.shutdown();
+        limited.awaitTermination();
+        assertEquals(maxConcurrency, maxRunning.get());
+    }
+
+    @Test
+    public void testConcurrencyLimitWithBlockingCaller() throws InterruptedException {
+        final int taskCount = 6;
+        final int maxConcurrency = 2;
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final NewThreadPerTaskExecutor limited = new NewThreadPerTaskExecutor(
+                Thread::new, maxConcurrency, NewThreadPerTaskExecutor.Overflow.BLOCK);
+        final long start = System.nanoTime();
+        IntStream.range(0, taskCount)
+                .forEach(n -> limited.execute(sleepingTask(running, maxRunning)));
+        // the last two tasks could only be started after two rounds of 100ms
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+        limited.shutdown();
+        limited.awaitTermination();
+        assertEquals(maxConcurrency, maxRunning.get());
+    }
+
+    @Test
+    public void testConcurrencyLimitWithRejection() throws InterruptedException {
+        final NewThreadPerTaskExecutor limited = new NewThreadPerTaskExecutor(
+                Thread::new, 1, NewThreadPerTaskExecutor.Overflow.REJECT);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        limited.execute(sleepingTask(running, maxRunning));
+        assertThrows(RejectedExecutionException.class,
+                () -> limited.execute(sleepingTask(running, maxRunning)));
+        limited.shutdown();
+        limited.awaitTermination();
+        assertEquals(1, maxRunning.get());
+    }
+
+    @Test
+    public void testBulkheadsLimitTasksPerKey() throws InterruptedException {
+        final int taskCount = 10;
+        final AtomicInteger runningA = new AtomicInteger();
+        final AtomicInteger maxRunningA = new AtomicInteger();
+        final AtomicInteger runningB = new AtomicInteger();
+        final AtomicInteger maxRunningB = new AtomicInteger();
+        executor.addBulkhead("a", 1, NewThreadPerTaskExecutor.Overflow.QUEUE);
+        executor.addBulkhead("b", 2, NewThreadPerTaskExecutor.Overflow.QUEUE);
+        IntStream.range(0, taskCount).forEach(n -> {
+            executor.execute("a", sleepingTask(runningA, maxRunningA));
+            executor.execute("b", sleepingTask(runningB, maxRunningB));
+        });
+        executor.shutdown();
+        executor.awaitTermination();
+        assertEquals(1, maxRunningA.get());
+        assertEquals(2, maxRunningB.get());
+    }
+
+    @Test
+    public void testBulkheadWithinConcurrencyLimit() throws InterruptedException {
+        final int taskCount = 10;
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final NewThreadPerTaskExecutor limited = new NewThreadPerTaskExecutor(
+                Thread::new, 3, NewThreadPerTaskExecutor.Overflow.QUEUE);
+        limited.addBulkhead("key", 2, NewThreadPerTaskExecutor.Overflow.QUEUE);
+        IntStream.range(0, taskCount).forEach(n -> {
+            limited.execute("key", sleepingTask(running, maxRunning));
+            limited.execute(sleepingTask(running, maxRunning));
+        });
+        limited.shutdown();
+        limited.awaitTermination();
+        assertEquals(3, maxRunning.get());
+    }
+
+    @Test
+    public void testUnknownBulkhead() {
+        assertThrows(IllegalArgumentException.class, () -> executor.execute("unknown", () -> {
+        }));
+    }
+
+    @Test
+    public void testThatImmediateShutdownReturnsQueuedTasks() throws InterruptedException {
+        final int taskCount = 10;
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final NewThreadPerTaskExecutor limited = new NewThreadPerTaskExecutor(
+                Thread::new, 2, NewThreadPerTaskExecutor.Overflow.QUEUE);
+        IntStream.range(0, taskCount)
+                .forEach(n -> limited.execute(sleepingTask(running, maxRunning)));
+        final List<Runnable> queued = limited.shutdownNow();
+        limited.awaitTermination();
+        assertEquals(taskCount - 2, queued.size());
+        assertTrue(limited.isTerminated());
+    }
+
+    @Test
+    public void testThatAllWaitersAreReleasedOnTermination() throws InterruptedException {
+        final int taskCount = 1_000;
+        final int waiterCount = 10;
+        final AtomicInteger released = new AtomicInteger();
+        final List<Thread> waiters = IntStream.range(0, waiterCount)
+                .mapToObj(n -> new Thread(() -> {
+                    try {
+                        executor.awaitTermination();
+                        released.incrementAndGet();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }))
+                .toList();
+        waiters.forEach(Thread::start);
+        IntStream.range(0, taskCount)
+                .parallel()
+                .forEach(n -> executor.execute(() -> {
+                }));
+        executor.shutdown();
+        for (Thread waiter : waiters) {
+            waiter.join();
+        }
+        assertEquals(waiterCount, released.get());
+        assertTrue(executor.isTerminated());
+    }
 }
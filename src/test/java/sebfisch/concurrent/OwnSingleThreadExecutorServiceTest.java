@@ -6,15 +6,22 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
@@ -322,4 +329,286 @@ public class OwnSingleThreadExecutorServiceTest {
             assertTrue(0 < taskNumbers.size() && taskNumbers.size() < taskCount);
         }
     }
+
+    @Test
+    public void testBoundedQueueRejectsExcessTasks() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (final ExecutorService executor = new SingleThreadExecutorService(
+                QueueLimit.ofTasks(2, QueueLimit.Overflow.REJECT))) {
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            TimeUnit.MILLISECONDS.sleep(300); // wait for first task to start
+            executor.execute(() -> {
+            });
+            executor.execute(() -> {
+            });
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+            }));
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testBoundedQueueRunsExcessTasksInCaller() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final Set<String> threadNames = new HashSet<>();
+        try (final ExecutorService executor = new SingleThreadExecutorService(
+                QueueLimit.ofTasks(1, QueueLimit.Overflow.CALLER_RUNS))) {
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            TimeUnit.MILLISECONDS.sleep(300); // wait for first task to start
+            IntStream.range(0, 2)
+                    .forEach(n -> executor.execute(() -> {
+                        synchronized (threadNames) {
+                            threadNames.add(Thread.currentThread().getName());
+                        }
+                    }));
+            assertTrue(threadNames.contains(Thread.currentThread().getName()));
+            release.countDown();
+        }
+        assertEquals(2, threadNames.size());
+    }
+
+    @Test
+    public void testThatShutdownRejectsBlockedProducers() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (final SingleThreadExecutorService executor = new SingleThreadExecutorService(
+                QueueLimit.ofTasks(1, QueueLimit.Overflow.BLOCK))) {
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            TimeUnit.MILLISECONDS.sleep(300); // wait for first task to start
+            executor.execute(() -> {
+            });
+            final AtomicBoolean rejected = new AtomicBoolean();
+            final Thread producer = Thread.ofPlatform().start(() -> {
+                try {
+                    executor.execute(() -> {
+                    });
+                } catch (RejectedExecutionException e) {
+                    rejected.set(true);
+                }
+            });
+            TimeUnit.MILLISECONDS.sleep(100); // wait for producer to block
+            executor.shutdown();
+            producer.join();
+            assertTrue(rejected.get());
+            assertEquals(1, executor.getQueuedTaskCount());
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testThatAllIdleStrategiesRunAllTasks() throws InterruptedException {
+        final int taskCount = 1_000;
+        for (IdleStrategy idleStrategy : IdleStrategy.values()) {
+            final AtomicInteger finished = new AtomicInteger();
+            try (final ExecutorService executor = new SingleThreadExecutorService(idleStrategy)) {
+                for (int n = 0; n < taskCount; n++) {
+                    executor.execute(finished::incrementAndGet);
+                    if (n % 100 == 0) {
+                        TimeUnit.MILLISECONDS.sleep(1); // let the worker become idle
+                    }
+                }
+            }
+            assertEquals(taskCount, finished.get(), idleStrategy.name());
+        }
+    }
+
+    @Test
+    public void testThatExecuteAllRunsTasksInOrder() throws InterruptedException {
+        final int taskCount = 3 * MpscChunkedQueue.CHUNK_SIZE;
+        final List<Integer> order = new ArrayList<>();
+        final List<Runnable> tasks = new ArrayList<>();
+        for (int n = 0; n < taskCount; n++) {
+            final int number = n;
+            tasks.add(() -> order.add(number));
+        }
+        try (final SingleThreadExecutorService executor = new SingleThreadExecutorService()) {
+            executor.execute(() -> order.add(-1));
+            executor.executeAll(tasks);
+            executor.shutdown();
+            assertThrows(RejectedExecutionException.class, () -> executor.executeAll(tasks));
+        }
+        assertEquals(taskCount + 1, order.size());
+        for (int n = 0; n < taskCount; n++) {
+            assertEquals(n, order.get(n + 1));
+        }
+    }
+
+    @Test
+    public void testThatExecuteAllRespectsQueueLimit() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger finished = new AtomicInteger();
+        try (final SingleThreadExecutorService executor = new SingleThreadExecutorService(
+                QueueLimit.ofTasks(2, QueueLimit.Overflow.REJECT))) {
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            TimeUnit.MILLISECONDS.sleep(50); // let the worker take the blocking task
+            final List<Runnable> tasks = List.of(finished::incrementAndGet, finished::incrementAndGet,
+                    finished::incrementAndGet);
+            assertThrows(RejectedExecutionException.class, () -> executor.executeAll(tasks));
+            release.countDown();
+        }
+        assertEquals(2, finished.get()); // the tasks before the rejected one still run
+    }
+
+    @Test
+    public void testThatExecuteAllQueuesBatchesLargerThanQueueLimit() throws InterruptedException {
+        final int taskCount = 10;
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        final List<Runnable> tasks = new ArrayList<>();
+        for (int n = 0; n < taskCount; n++) {
+            final int number = n;
+            tasks.add(() -> order.add(number));
+        }
+        try (final SingleThreadExecutorService executor = new SingleThreadExecutorService(
+                QueueLimit.ofTasks(4, QueueLimit.Overflow.BLOCK))) {
+            final Thread producer = Thread.ofPlatform().start(() -> executor.executeAll(tasks));
+            producer.join(3_000);
+            assertFalse(producer.isAlive());
+        }
+        assertEquals(IntStream.range(0, taskCount).boxed().toList(), order);
+
+        final AtomicInteger finished = new AtomicInteger();
+        try (final SingleThreadExecutorService executor = new SingleThreadExecutorService(
+                QueueLimit.ofTasks(4, QueueLimit.Overflow.DROP_OLDEST))) {
+            executor.executeAll(Collections.nCopies(taskCount, (Runnable) finished::incrementAndGet));
+        }
+        assertTrue(finished.get() >= 4);
+    }
+
+    @Test
+    public void testInvokeAll() throws InterruptedException, ExecutionException {
+        try (final ExecutorService executor = new SingleThreadExecutorService()) {
+            final List<Future<Integer>> futures = executor.invokeAll(List.of(() -> 1, () -> {
+                throw new IllegalStateException();
+            }, () -> 3));
+            assertEquals(3, futures.size());
+            assertTrue(futures.stream().allMatch(Future::isDone));
+            assertEquals(1, futures.get(0).get());
+            assertThrows(ExecutionException.class, futures.get(1)::get);
+            assertEquals(3, futures.get(2).get());
+        }
+    }
+
+    @Test
+    public void testThatTimedInvokeAllCancelsUnfinishedTasks() throws InterruptedException {
+        try (final ExecutorService executor = new SingleThreadExecutorService()) {
+            final List<Future<Integer>> futures = executor.invokeAll(List.of(() -> 1, () -> {
+                TimeUnit.SECONDS.sleep(10);
+                return 2;
+            }, () -> 3), 50, TimeUnit.MILLISECONDS);
+            assertTrue(futures.stream().allMatch(Future::isDone));
+            assertFalse(futures.get(0).isCancelled());
+            assertTrue(futures.get(1).isCancelled());
+            assertTrue(futures.get(2).isCancelled());
+        }
+    }
+
+    @Test
+    public void testInvokeAny() throws InterruptedException, ExecutionException {
+        try (final ExecutorService executor = new SingleThreadExecutorService()) {
+            assertEquals(2, executor.invokeAny(List.<Callable<Integer>>of(() -> {
+                throw new IllegalStateException();
+            }, () -> 2, () -> 3)));
+            final ExecutionException failure = assertThrows(ExecutionException.class,
+                    () -> executor.invokeAny(List.of(() -> {
+                        throw new IllegalStateException("first");
+                    }, () -> {
+                        throw new IllegalStateException("last");
+                    })));
+            assertEquals("last", failure.getCause().getMessage());
+            assertThrows(IllegalArgumentException.class, () -> executor.invokeAny(List.<Callable<Integer>>of()));
+        }
+    }
+
+    @Test
+    public void testThatTimedInvokeAnyInterruptsRunningTask() throws InterruptedException {
+        final AtomicBoolean interrupted = new AtomicBoolean(false);
+        try (final ExecutorService executor = new SingleThreadExecutorService()) {
+            assertThrows(TimeoutException.class,
+                    () -> executor.invokeAny(List.of(() -> {
+                        try {
+                            TimeUnit.SECONDS.sleep(10);
+                        } catch (InterruptedException e) {
+                            interrupted.set(true);
+                        }
+                        return 1;
+                    }), 50, TimeUnit.MILLISECONDS));
+        }
+        assertTrue(interrupted.get());
+    }
+
+    @Test
+    public void testThatOnTerminationCompletesAfterLastTask() throws InterruptedException, ExecutionException {
+        final AtomicBoolean finished = new AtomicBoolean(false);
+        final SingleThreadExecutorService executor = new SingleThreadExecutorService();
+        final CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            finished.set(true);
+        });
+        final CompletableFuture<Boolean> observed = executor.onTermination().thenApply(ignored -> finished.get());
+        executor.shutdown();
+        assertTrue(executor.isShutdown());
+        assertFalse(executor.isTerminated());
+        assertFalse(executor.awaitTermination(10, TimeUnit.MILLISECONDS));
+        assertFalse(observed.isDone());
+        release.countDown();
+        assertTrue(observed.get());
+        assertTrue(executor.awaitTermination(0, TimeUnit.SECONDS));
+        assertTrue(executor.isTerminated());
+        assertTrue(executor.onTermination().isDone());
+    }
+
+    @Test
+    public void testThatCompletingOnTerminationDoesNotTerminate() throws InterruptedException {
+        try (final SingleThreadExecutorService executor = new SingleThreadExecutorService()) {
+            executor.onTermination().complete(null);
+            assertFalse(executor.onTermination().isDone());
+            assertFalse(executor.awaitTermination(10, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Test
+    public void testThatImmediateShutdownTerminates() throws InterruptedException, ExecutionException {
+        final SingleThreadExecutorService executor = new SingleThreadExecutorService();
+        executor.execute(() -> {
+            try {
+                TimeUnit.SECONDS.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        executor.shutdownNow();
+        executor.shutdown(); // does not move the state back
+        executor.onTermination().get();
+        assertTrue(executor.isShutdown());
+        assertTrue(executor.isTerminated());
+        assertTrue(executor.shutdownNow().isEmpty());
+    }
 }
@@ -0,0 +1,125 @@
+package sebfisch.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class PartitionedExecutorServiceTest {
+    @Test
+    public void testThatTasksWithSameKeyRunInSubmissionOrder() {
+        final int keyCount = 8;
+        final int tasksPerKey = 1_000;
+        final List<List<Integer>> results = new ArrayList<>();
+        IntStream.range(0, keyCount).forEach(key -> results.add(new ArrayList<>()));
+        try (final PartitionedExecutorService executor = new PartitionedExecutorService(4)) {
+            for (int n = 0; n < tasksPerKey; n++) {
+                for (int key = 0; key < keyCount; key++) {
+                    final int k = key;
+                    final int number = n;
+                    executor.execute(k, () -> results.get(k).add(number));
+                }
+            }
+        }
+        for (List<Integer> result : results) {
+            assertEquals(IntStream.range(0, tasksPerKey).boxed().toList(), result);
+        }
+    }
+
+    @Test
+    public void testThatSameThreadIsUsedForEachKey() {
+        final int taskCount = 100;
+        final Set<String> threadNames = new HashSet<>();
+        try (final PartitionedExecutorService executor = new PartitionedExecutorService(4)) {
+            IntStream.range(0, taskCount)
+                    .forEach(n -> executor.execute("key", () -> {
+                        synchronized (threadNames) {
+                            threadNames.add(Thread.currentThread().getName());
+                        }
+                    }));
+        }
+        assertEquals(1, threadNames.size());
+    }
+
+    @Test
+    public void testThatDifferentKeysUseMultipleThreads() {
+        final int shardCount = 4;
+        final Set<String> threadNames = new HashSet<>();
+        try (final PartitionedExecutorService executor = new PartitionedExecutorService(shardCount)) {
+            IntStream.range(0, 100)
+                    .forEach(key -> executor.execute(key, () -> {
+                        synchronized (threadNames) {
+                            threadNames.add(Thread.currentThread().getName());
+                        }
+                    }));
+        }
+        assertEquals(shardCount, threadNames.size());
+    }
+
+    @Test
+    public void testSubmitWithKey() throws InterruptedException, ExecutionException {
+        try (final PartitionedExecutorService executor = new PartitionedExecutorService(2)) {
+            assertEquals(42, executor.submit("key", () -> 42).get());
+        }
+    }
+
+    @Test
+    public void testSubmittingTaskAfterShutdown() {
+        try (final PartitionedExecutorService executor = new PartitionedExecutorService(2)) {
+            executor.shutdown();
+            assertTrue(executor.isShutdown());
+            assertThrows(RejectedExecutionException.class, () -> executor.execute("key", () -> {
+            }));
+        }
+    }
+
+    @Test
+    public void testGracefulTermination() throws InterruptedException {
+        try (final PartitionedExecutorService executor = new PartitionedExecutorService(2)) {
+            IntStream.range(0, 10)
+                    .forEach(key -> executor.execute(key, () -> {
+                        try {
+                            TimeUnit.MILLISECONDS.sleep(10);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }));
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.HOURS));
+            assertTrue(executor.isTerminated());
+        }
+    }
+
+    @Test
+    public void testQueuedTaskCountsAndImmediateTermination() throws InterruptedException {
+        final int taskCount = 10;
+        try (final PartitionedExecutorService executor = new PartitionedExecutorService(2)) {
+            final int blockedShard = executor.shardOf("key");
+            IntStream.range(0, taskCount)
+                    .forEach(n -> executor.execute("key", () -> {
+                        try {
+                            TimeUnit.SECONDS.sleep(10);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }));
+            TimeUnit.MILLISECONDS.sleep(300); // wait for first task to start
+            final long[] queued = executor.getQueuedTaskCounts();
+            assertEquals(taskCount - 1, queued[blockedShard]);
+            assertEquals(0, queued[1 - blockedShard]);
+            assertEquals(taskCount - 1, executor.shutdownNow().size());
+            assertTrue(executor.awaitTermination(1, TimeUnit.HOURS));
+            assertEquals(0, executor.getQueuedTaskCounts()[blockedShard]);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package sebfisch.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class PrioritySingleThreadExecutorServiceTest {
+    private static void blockWorker(ExecutorService executor, CountDownLatch release) throws InterruptedException {
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        TimeUnit.MILLISECONDS.sleep(100); // wait for the blocking task to start
+    }
+
+    private static Runnable recording(List<String> order, String name) {
+        return () -> {
+            synchronized (order) {
+                order.add(name);
+            }
+        };
+    }
+
+    @Test
+    public void testThatHigherPriorityRunsFirst() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> order = new ArrayList<>();
+        try (final PrioritySingleThreadExecutorService executor = new PrioritySingleThreadExecutorService(
+                Duration.ofHours(1))) {
+            blockWorker(executor, release);
+            executor.execute(recording(order, "bulk1"), 0);
+            executor.execute(recording(order, "bulk2"), 0);
+            executor.execute(recording(order, "urgent"), 10);
+            executor.execute(recording(order, "low"), -1);
+            release.countDown();
+        }
+        assertEquals(List.of("urgent", "bulk1", "bulk2", "low"), order);
+    }
+
+    @Test
+    public void testFifoOrderWithinEqualPriority() throws InterruptedException {
+        final int taskCount = 1_000;
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> order = new ArrayList<>();
+        final List<String> expected = new ArrayList<>();
+        try (final PrioritySingleThreadExecutorService executor = new PrioritySingleThreadExecutorService()) {
+            blockWorker(executor, release);
+            for (int i = 0; i < taskCount; i++) {
+                expected.add("task" + i);
+                executor.execute(recording(order, "task" + i), 5);
+            }
+            release.countDown();
+        }
+        assertEquals(expected, order);
+    }
+
+    @Test
+    public void testThatWaitingTasksAge() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> order = new ArrayList<>();
+        try (final PrioritySingleThreadExecutorService executor = new PrioritySingleThreadExecutorService(
+                Duration.ofMillis(1))) {
+            blockWorker(executor, release);
+            executor.execute(recording(order, "old"), 0);
+            TimeUnit.MILLISECONDS.sleep(100);
+            executor.execute(recording(order, "urgent"), 10); // only 10ms ahead
+            executor.execute(recording(order, "very urgent"), 1_000);
+            release.countDown();
+        }
+        assertEquals(List.of("very urgent", "old", "urgent"), order);
+    }
+
+    @Test
+    public void testPrioritizedTasks() throws InterruptedException, ExecutionException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<String> order = new ArrayList<>();
+        try (final PrioritySingleThreadExecutorService executor = new PrioritySingleThreadExecutorService(
+                Duration.ofHours(1))) {
+            blockWorker(executor, release);
+            final Future<String> bulk = executor.submit(() -> {
+                recording(order, "bulk").run();
+                return "bulk";
+            });
+            final Future<String> urgent = executor.submit(new PrioritizedCallable(order));
+            release.countDown();
+            assertEquals("urgent", urgent.get());
+            assertEquals("bulk", bulk.get());
+        }
+        assertEquals(List.of("urgent", "bulk"), order);
+    }
+
+    private record PrioritizedCallable(List<String> order) implements Callable<String>, Prioritized {
+        @Override
+        public String call() {
+            recording(order, "urgent").run();
+            return "urgent";
+        }
+
+        @Override
+        public int priority() {
+            return 1;
+        }
+    }
+
+    @Test
+    public void testSubmittingTaskAfterShutdown() {
+        try (final ExecutorService executor = new PrioritySingleThreadExecutorService()) {
+            executor.shutdown();
+            assertTrue(executor.isShutdown());
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+            }));
+        }
+    }
+
+    @Test
+    public void testGracefulTermination() throws InterruptedException {
+        try (final ExecutorService executor = new PrioritySingleThreadExecutorService()) {
+            for (int i = 0; i < 10; i++) {
+                executor.execute(() -> {
+                    try {
+                        TimeUnit.MILLISECONDS.sleep(10);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.HOURS));
+            assertTrue(executor.isTerminated());
+        }
+    }
+
+    @Test
+    public void testThatShutdownNowReturnsTasksInPriorityOrder() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        try (final PrioritySingleThreadExecutorService executor = new PrioritySingleThreadExecutorService(
+                Duration.ofHours(1))) {
+            blockWorker(executor, release);
+            final Runnable low = () -> {
+            };
+            final Runnable high = () -> {
+            };
+            executor.execute(low, 0);
+            executor.execute(high, 1);
+            assertEquals(List.of(high, low), executor.shutdownNow());
+            assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package sebfisch.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class QueueBudgetTest {
+    private final Queue<Runnable> queue = new ArrayDeque<>();
+
+    private QueueBudget budget(QueueLimit limit) {
+        return new QueueBudget(limit, queue::poll);
+    }
+
+    @Test
+    public void testThatUnboundedBudgetQueuesTasksUnchanged() {
+        final QueueBudget budget = budget(QueueLimit.UNBOUNDED);
+        final Runnable task = () -> {
+        };
+        assertSame(task, budget.acquire(task, Long.MAX_VALUE));
+        assertSame(task, budget.release(task));
+    }
+
+    @Test
+    public void testRejectWhenFull() {
+        final QueueBudget budget = budget(QueueLimit.ofTasks(2, QueueLimit.Overflow.REJECT));
+        final Runnable entry = budget.acquire(() -> {
+        }, 100);
+        budget.acquire(() -> {
+        }, 100);
+        assertThrows(RejectedExecutionException.class, () -> budget.acquire(() -> {
+        }, 1));
+        budget.release(entry);
+        budget.acquire(() -> {
+        }, 1);
+    }
+
+    @Test
+    public void testCallerRunsWhenFull() {
+        final QueueBudget budget = budget(QueueLimit.ofTasks(1, QueueLimit.Overflow.CALLER_RUNS));
+        budget.acquire(() -> {
+        }, 1);
+        assertNull(budget.acquire(() -> {
+        }, 1));
+    }
+
+    @Test
+    public void testWeightedCapacity() {
+        final QueueBudget budget = budget(QueueLimit.ofWeight(1_000, QueueLimit.Overflow.REJECT));
+        final Runnable task = () -> {
+        };
+        final Runnable entry = budget.acquire(task, 600);
+        assertThrows(RejectedExecutionException.class, () -> budget.acquire(() -> {
+        }, 500));
+        budget.acquire(() -> {
+        }, 400);
+        assertSame(task, budget.release(entry));
+        budget.acquire(() -> {
+        }, 500);
+        assertThrows(IllegalArgumentException.class, () -> budget.acquire(() -> {
+        }, 1_001));
+    }
+
+    @Test
+    public void testDropOldestCancelsDroppedFutures() {
+        final QueueBudget budget = budget(QueueLimit.ofTasks(2, QueueLimit.Overflow.DROP_OLDEST));
+        final FutureTask<Integer> oldest = new FutureTask<>(() -> 1);
+        queue.add(budget.acquire(oldest, 1));
+        queue.add(budget.acquire(() -> {
+        }, 1));
+        queue.add(budget.acquire(() -> {
+        }, 1));
+        assertEquals(2, queue.size());
+        assertTrue(oldest.isCancelled());
+    }
+
+    @Test
+    public void testBlockUntilRoomIsFreed() throws InterruptedException {
+        final QueueBudget budget = budget(QueueLimit.ofTasks(1, QueueLimit.Overflow.BLOCK));
+        final Runnable entry = budget.acquire(() -> {
+        }, 1);
+        final Thread consumer = Thread.ofPlatform().start(() -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            budget.release(entry);
+        });
+        budget.acquire(() -> {
+        }, 1);
+        consumer.join();
+    }
+
+    @Test
+    public void testBlockTimeout() {
+        final QueueBudget budget = budget(QueueLimit.ofTasks(1, QueueLimit.Overflow.BLOCK)
+                .withBlockTimeout(Duration.ofMillis(50)));
+        budget.acquire(() -> {
+        }, 1);
+        assertThrows(RejectedExecutionException.class, () -> budget.acquire(() -> {
+        }, 1));
+    }
+
+    @Test
+    public void testThatClosingRejectsBlockedProducers() throws InterruptedException {
+        final QueueBudget budget = budget(QueueLimit.ofTasks(1, QueueLimit.Overflow.BLOCK));
+        budget.acquire(() -> {
+        }, 1);
+        final Thread closer = Thread.ofPlatform().start(() -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            budget.close();
+        });
+        assertThrows(RejectedExecutionException.class, () -> budget.acquire(() -> {
+        }, 1));
+        closer.join();
+    }
+}
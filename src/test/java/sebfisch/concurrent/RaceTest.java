@@ -0,0 +1,126 @@
+package sebfisch.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class RaceTest {
+    private static Callable<String> sleeping(long millis, String result, CountDownLatch interrupted) {
+        return () -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(millis);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return result;
+        };
+    }
+
+    @Test
+    public void testThatLosersAreInterruptedImmediately() throws InterruptedException, ExecutionException {
+        final CountDownLatch interrupted = new CountDownLatch(2);
+        final NewThreadPerTaskExecutor executor = new NewThreadPerTaskExecutor();
+        final long start = System.nanoTime();
+        final String winner = Race.firstSuccessful(executor, List.of(
+                sleeping(10_000, "slow", interrupted),
+                sleeping(10, "fast", interrupted),
+                sleeping(10_000, "slower", interrupted)));
+        assertEquals("fast", winner);
+        assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        executor.shutdown();
+        executor.awaitTermination();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    public void testThatFailuresAreIgnoredWhileOneSucceeds() throws InterruptedException, ExecutionException {
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final String winner = Race.firstSuccessful(executor, List.<Callable<String>>of(() -> {
+                throw new IllegalStateException("fails");
+            }, () -> {
+                TimeUnit.MILLISECONDS.sleep(50);
+                return "succeeds";
+            }));
+            assertEquals("succeeds", winner);
+        }
+    }
+
+    @Test
+    public void testThatRaceFailsWithFirstFailureIfAllFail() throws InterruptedException {
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final ExecutionException failure = assertThrows(ExecutionException.class,
+                    () -> Race.firstSuccessful(executor, List.<Callable<String>>of(() -> {
+                        throw new IllegalStateException("first");
+                    }, () -> {
+                        TimeUnit.MILLISECONDS.sleep(50);
+                        throw new IllegalStateException("second");
+                    })));
+            assertEquals("first", failure.getCause().getMessage());
+            assertEquals("second", failure.getCause().getSuppressed()[0].getMessage());
+        }
+    }
+
+    @Test
+    public void testThatFailFastEndsRaceOnFirstFailure() throws InterruptedException {
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+                final Race<String> race = new Race<>(executor, Race.FailurePolicy.FAIL_FAST)) {
+            race.fork(sleeping(10_000, "slow", interrupted));
+            race.fork(() -> {
+                throw new IllegalStateException("fails");
+            });
+            final ExecutionException failure = assertThrows(ExecutionException.class, race::join);
+            assertEquals("fails", failure.getCause().getMessage());
+            assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    public void testThatTimedJoinClosesRace() throws InterruptedException {
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+                final Race<String> race = new Race<>(executor)) {
+            race.fork(sleeping(10_000, "slow", interrupted));
+            assertThrows(TimeoutException.class, () -> race.join(Duration.ofMillis(20)));
+            assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+            assertThrows(IllegalStateException.class, () -> race.fork(() -> "late"));
+        }
+    }
+
+    @Test
+    public void testThatTasksForkedAfterTheWinnerDoNotRun() throws InterruptedException, ExecutionException {
+        final AtomicInteger started = new AtomicInteger();
+        try (final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+                final Race<String> race = new Race<>(executor)) {
+            race.fork(() -> "first");
+            TimeUnit.MILLISECONDS.sleep(50);
+            race.fork(() -> {
+                started.incrementAndGet();
+                return "second";
+            });
+            assertEquals("first", race.join());
+        }
+        assertEquals(0, started.get());
+    }
+
+    @Test
+    public void testThatJoiningWithoutTasksFails() {
+        try (final Race<String> race = new Race<>(Runnable::run)) {
+            assertThrows(IllegalStateException.class, race::join);
+        }
+    }
+}
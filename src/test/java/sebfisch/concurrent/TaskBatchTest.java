@@ -0,0 +1,83 @@
+package sebfisch.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class TaskBatchTest {
+    private static void fill(TaskBatch batch, Runnable task) {
+        batch.clear();
+        for (int i = 0; i < batch.limit(); i++) {
+            batch.add(task);
+        }
+        batch.start();
+    }
+
+    private static void runAll(TaskBatch batch) {
+        for (Runnable task = batch.poll(); task != null; task = batch.poll()) {
+            task.run();
+        }
+    }
+
+    @Test
+    public void testInvalidSize() {
+        assertThrows(IllegalArgumentException.class, () -> new TaskBatch(0, Duration.ofMillis(1)));
+    }
+
+    @Test
+    public void testThatBatchShrinksWhenMissingLatencyTarget() {
+        final TaskBatch batch = new TaskBatch(8, Duration.ofNanos(1));
+        fill(batch, () -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        runAll(batch);
+        assertEquals(4, batch.limit());
+    }
+
+    @Test
+    public void testThatBatchGrowsWhenMeetingLatencyTarget() {
+        final TaskBatch batch = new TaskBatch(8, Duration.ofMillis(5));
+        fill(batch, () -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        runAll(batch); // takes at least 8ms
+        assertEquals(4, batch.limit());
+        fill(batch, () -> {
+        });
+        runAll(batch);
+        assertEquals(5, batch.limit());
+    }
+
+    @Test
+    public void testRemovingRemainingTasks() {
+        final TaskBatch batch = new TaskBatch(4, Duration.ofHours(1));
+        final Runnable first = () -> {
+        };
+        final Runnable second = () -> {
+        };
+        final Runnable third = () -> {
+        };
+        batch.clear();
+        batch.add(first);
+        batch.add(second);
+        batch.add(third);
+        batch.start();
+        assertEquals(first, batch.poll());
+        assertEquals(List.of(second, third), batch.removeRemaining());
+        assertEquals(null, batch.poll());
+        assertEquals(List.of(), batch.removeRemaining());
+    }
+}
@@ -0,0 +1,129 @@
+package sebfisch.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class TaskEventsTest {
+    private static List<RecordedEvent> record(Recording recording, Runnable scenario) throws IOException {
+        final Path file = Files.createTempFile("task-events", ".jfr");
+        try {
+            recording.start();
+            scenario.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            recording.close();
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long count(List<RecordedEvent> events, String name) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(name)).count();
+    }
+
+    @Test
+    public void testThatUntracedTasksAreQueuedUnchanged() {
+        final Runnable task = () -> {
+        };
+        assertSame(task, TaskEvents.traced(this, task));
+    }
+
+    @Test
+    public void testLifecycleEventsOfSingleThreadExecutorService() throws IOException {
+        final Recording recording = new Recording();
+        recording.enable("sebfisch.concurrent.TaskEnqueued");
+        recording.enable("sebfisch.concurrent.TaskExecuted").withThreshold(Duration.ZERO);
+        recording.enable("sebfisch.concurrent.TaskRejected");
+        recording.enable("sebfisch.concurrent.ExecutorShutdown");
+        recording.enable("sebfisch.concurrent.ExecutorTerminated");
+        final List<RecordedEvent> events = record(recording, () -> {
+            final SingleThreadExecutorService executor = new SingleThreadExecutorService();
+            for (int i = 0; i < 10; i++) {
+                executor.execute(() -> {
+                });
+            }
+            executor.shutdown();
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+            }));
+            try {
+                assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        });
+        assertEquals(10, count(events, "sebfisch.concurrent.TaskEnqueued"));
+        assertEquals(10, count(events, "sebfisch.concurrent.TaskExecuted"));
+        assertEquals(1, count(events, "sebfisch.concurrent.TaskRejected"));
+        assertEquals(1, count(events, "sebfisch.concurrent.ExecutorShutdown"));
+        assertEquals(1, count(events, "sebfisch.concurrent.ExecutorTerminated"));
+    }
+
+    @Test
+    public void testThatRejectionsAfterTerminationDoNotTerminateAgain() throws IOException {
+        final Recording recording = new Recording();
+        recording.enable("sebfisch.concurrent.TaskRejected");
+        recording.enable("sebfisch.concurrent.ExecutorTerminated");
+        final List<RecordedEvent> events = record(recording, () -> {
+            final NewThreadPerTaskExecutor executor = new NewThreadPerTaskExecutor();
+            executor.shutdown();
+            assertTrue(executor.isTerminated());
+            for (int i = 0; i < 5; i++) {
+                assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+                }));
+            }
+        });
+        assertEquals(5, count(events, "sebfisch.concurrent.TaskRejected"));
+        assertEquals(1, count(events, "sebfisch.concurrent.ExecutorTerminated"));
+    }
+
+    @Test
+    public void testThatExecutionEventsBelowThresholdAreDiscarded() throws IOException {
+        final Recording recording = new Recording();
+        recording.enable("sebfisch.concurrent.TaskExecuted").withThreshold(Duration.ofMillis(20));
+        final List<RecordedEvent> events = record(recording, () -> {
+            final NewThreadPerTaskExecutor executor = new NewThreadPerTaskExecutor();
+            final CountDownLatch done = new CountDownLatch(2);
+            executor.execute(done::countDown);
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(30);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+            try {
+                done.await();
+                executor.shutdown();
+                executor.awaitTermination();
+            } catch (InterruptedException e) {
+                throw new AssertionError(e);
+            }
+        });
+        final List<RecordedEvent> executed = events.stream()
+                .filter(event -> event.getEventType().getName().equals("sebfisch.concurrent.TaskExecuted"))
+                .toList();
+        assertEquals(1, executed.size());
+        assertTrue(executed.get(0).getDuration("runTime").toMillis() >= 30);
+        assertEquals(NewThreadPerTaskExecutor.class.getName(),
+                executed.get(0).getClass("executorClass").getName());
+    }
+}
@@ -0,0 +1,178 @@
+package sebfisch.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class TimingWheelScheduledExecutorServiceTest {
+    @Test
+    public void testThatDelayedTaskRunsAfterDelay() throws InterruptedException, ExecutionException {
+        try (final ScheduledExecutorService executor = new TimingWheelScheduledExecutorService()) {
+            final long start = System.nanoTime();
+            final ScheduledFuture<Long> future = executor.schedule(System::nanoTime, 50, TimeUnit.MILLISECONDS);
+            assertTrue(future.get() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        }
+    }
+
+    @Test
+    public void testThatTasksRunInDeadlineOrder() throws InterruptedException {
+        final List<Integer> order = new ArrayList<>();
+        try (final ScheduledExecutorService executor = new TimingWheelScheduledExecutorService()) {
+            for (int delay : new int[] { 30, 10, 20 }) {
+                executor.schedule(() -> order.add(delay), delay, TimeUnit.MILLISECONDS);
+            }
+        }
+        assertEquals(List.of(10, 20, 30), order);
+    }
+
+    @Test
+    public void testDelaysLongerThanOneRotation() throws InterruptedException, ExecutionException {
+        try (final ScheduledExecutorService executor = new TimingWheelScheduledExecutorService(
+                Duration.ofMillis(1), 8)) {
+            final long start = System.nanoTime();
+            final ScheduledFuture<Long> late = executor.schedule(System::nanoTime, 50, TimeUnit.MILLISECONDS);
+            final ScheduledFuture<Long> early = executor.schedule(System::nanoTime, 2, TimeUnit.MILLISECONDS);
+            assertTrue(early.get() < late.get());
+            assertTrue(late.get() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+        }
+    }
+
+    @Test
+    public void testThatEarlierTimersWakeTheParkedWorker() throws InterruptedException, ExecutionException {
+        try (final ScheduledExecutorService executor = new TimingWheelScheduledExecutorService(
+                Duration.ofMillis(10), 512)) {
+            final ScheduledFuture<?> distant = executor.schedule(() -> {
+            }, 5, TimeUnit.SECONDS);
+            // let the worker park until the bucket of the distant timer
+            TimeUnit.MILLISECONDS.sleep(50);
+            final long start = System.nanoTime();
+            final ScheduledFuture<Long> near = executor.schedule(System::nanoTime, 20, TimeUnit.MILLISECONDS);
+            assertTrue(near.get() - start < TimeUnit.SECONDS.toNanos(1));
+            distant.cancel(false);
+        }
+    }
+
+    @Test
+    public void testThatVeryLongDelaysDoNotOverflow() throws InterruptedException {
+        final AtomicInteger runs = new AtomicInteger();
+        try (final ScheduledExecutorService executor = new TimingWheelScheduledExecutorService()) {
+            final ScheduledFuture<?> timer = executor.schedule(runs::incrementAndGet, Long.MAX_VALUE,
+                    TimeUnit.NANOSECONDS);
+            final ScheduledFuture<?> days = executor.schedule(runs::incrementAndGet, Long.MAX_VALUE, TimeUnit.DAYS);
+            TimeUnit.MILLISECONDS.sleep(100);
+            assertFalse(timer.isDone());
+            assertTrue(timer.getDelay(TimeUnit.DAYS) > 365 * 100);
+            assertTrue(days.getDelay(TimeUnit.DAYS) > 365 * 100);
+            timer.cancel(false);
+            days.cancel(false);
+        }
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void testThatCancelledTimersDoNotRunOrDelayTermination() throws InterruptedException {
+        final int timerCount = 100_000;
+        final AtomicInteger runs = new AtomicInteger();
+        final ScheduledExecutorService executor = new TimingWheelScheduledExecutorService();
+        final List<ScheduledFuture<?>> timers = new ArrayList<>();
+        for (int i = 0; i < timerCount; i++) {
+            timers.add(executor.schedule(runs::incrementAndGet, 1 + i % 1_000, TimeUnit.SECONDS));
+        }
+        timers.forEach(timer -> timer.cancel(false));
+        executor.schedule(runs::incrementAndGet, 1, TimeUnit.HOURS).cancel(false);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+        timers.forEach(timer -> assertTrue(timer.isCancelled()));
+    }
+
+    @Test
+    public void testFixedRate() throws InterruptedException {
+        final CountDownLatch runs = new CountDownLatch(10);
+        try (final ScheduledExecutorService executor = new TimingWheelScheduledExecutorService()) {
+            final ScheduledFuture<?> timer = executor.scheduleAtFixedRate(runs::countDown, 0, 5,
+                    TimeUnit.MILLISECONDS);
+            assertTrue(runs.await(1, TimeUnit.SECONDS));
+            assertTrue(timer.cancel(false));
+        }
+    }
+
+    @Test
+    public void testFixedDelay() throws InterruptedException {
+        final int runCount = 5;
+        final List<Long> starts = new ArrayList<>();
+        final List<Long> ends = new ArrayList<>();
+        final CountDownLatch runs = new CountDownLatch(runCount);
+        try (final ScheduledExecutorService executor = new TimingWheelScheduledExecutorService()) {
+            executor.scheduleWithFixedDelay(() -> {
+                starts.add(System.nanoTime());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                ends.add(System.nanoTime());
+                runs.countDown();
+            }, 0, 10, TimeUnit.MILLISECONDS);
+            assertTrue(runs.await(1, TimeUnit.SECONDS));
+            executor.shutdownNow();
+        }
+        for (int i = 1; i < runCount; i++) {
+            assertTrue(starts.get(i) - ends.get(i - 1) >= TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    @Test
+    public void testThatShutdownRunsDelayedButStopsPeriodicTasks() throws InterruptedException {
+        final AtomicInteger delayedRuns = new AtomicInteger();
+        try (final ScheduledExecutorService executor = new TimingWheelScheduledExecutorService()) {
+            final ScheduledFuture<?> periodic = executor.scheduleAtFixedRate(() -> {
+            }, 1, 1, TimeUnit.HOURS);
+            executor.schedule(delayedRuns::incrementAndGet, 20, TimeUnit.MILLISECONDS);
+            executor.shutdown();
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+            }));
+            assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+            assertTrue(periodic.isCancelled());
+        }
+        assertEquals(1, delayedRuns.get());
+    }
+
+    @Test
+    public void testThatShutdownNowReturnsPendingTimers() throws InterruptedException {
+        try (final ScheduledExecutorService executor = new TimingWheelScheduledExecutorService()) {
+            executor.schedule(() -> {
+            }, 1, TimeUnit.HOURS);
+            executor.schedule(() -> {
+            }, 2, TimeUnit.HOURS).cancel(false);
+            TimeUnit.MILLISECONDS.sleep(10); // let the worker place the timers
+            assertEquals(1, executor.shutdownNow().size());
+            assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+            assertTrue(executor.isTerminated());
+        }
+    }
+
+    @Test
+    public void testImmediateTasks() throws InterruptedException, ExecutionException {
+        try (final ScheduledExecutorService executor = new TimingWheelScheduledExecutorService()) {
+            assertEquals(42, executor.submit(() -> 42).get());
+            final ScheduledFuture<Integer> future = executor.schedule(() -> 1, 0, TimeUnit.MILLISECONDS);
+            assertEquals(1, future.get());
+            assertTrue(future.isDone());
+        }
+    }
+}
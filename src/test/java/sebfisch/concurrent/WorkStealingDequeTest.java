@@ -0,0 +1,68 @@
+package sebfisch.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class WorkStealingDequeTest {
+    @Test
+    public void testOrderOfPopAndSteal() {
+        final WorkStealingDeque deque = new WorkStealingDeque();
+        final Runnable first = () -> {
+        };
+        final Runnable second = () -> {
+        };
+        final Runnable third = () -> {
+        };
+        deque.push(first);
+        deque.push(second);
+        deque.push(third);
+        assertSame(third, deque.pop());
+        assertSame(first, deque.steal());
+        assertSame(second, deque.pop());
+        assertNull(deque.pop());
+        assertNull(deque.steal());
+    }
+
+    @Test
+    public void testThatReusedSlotsKeepTheirTasks() throws InterruptedException {
+        final int count = 200_000;
+        final AtomicInteger runs = new AtomicInteger();
+        // the same task in every slot, so that clearing a reused slot loses it
+        final Runnable task = runs::incrementAndGet;
+        final WorkStealingDeque deque = new WorkStealingDeque();
+        final AtomicBoolean isPushing = new AtomicBoolean(true);
+        final List<Thread> thieves = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            thieves.add(Thread.ofPlatform().start(() -> {
+                while (isPushing.get() || !deque.isEmpty()) {
+                    final Runnable stolen = deque.steal();
+                    if (stolen != null) {
+                        stolen.run();
+                    }
+                }
+            }));
+        }
+        for (int i = 0; i < count; i++) {
+            deque.push(task);
+            if (i % 3 == 0) {
+                final Runnable popped = deque.pop();
+                if (popped != null) {
+                    popped.run();
+                }
+            }
+        }
+        isPushing.set(false);
+        for (Thread thief : thieves) {
+            thief.join();
+        }
+        assertEquals(count, runs.get());
+    }
+}
@@ -0,0 +1,171 @@
+package sebfisch.concurrent;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class WorkStealingExecutorServiceTest {
+    @Test
+    public void testThatMultipleThreadsAreUsed() throws InterruptedException {
+        final int workerCount = 4;
+        final CountDownLatch allStarted = new CountDownLatch(workerCount);
+        final Set<String> threadNames = new HashSet<>();
+        try (final ExecutorService executor = new WorkStealingExecutorService(workerCount)) {
+            IntStream.range(0, workerCount)
+                    .forEach(n -> executor.execute(() -> {
+                        synchronized (threadNames) {
+                            threadNames.add(Thread.currentThread().getName());
+                        }
+                        allStarted.countDown();
+                        try {
+                            allStarted.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }));
+        }
+        assertEquals(workerCount, threadNames.size());
+    }
+
+    @Test
+    public void testShutdown() {
+        try (final ExecutorService executor = new WorkStealingExecutorService(2)) {
+            executor.shutdown();
+            assertTrue(executor.isShutdown());
+        }
+    }
+
+    @Test
+    public void testSubmittingTaskAfterShutdown() {
+        try (final ExecutorService executor = new WorkStealingExecutorService(2)) {
+            executor.shutdown();
+            assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+            }));
+        }
+    }
+
+    @Test
+    public void testGracefulTerminationWithoutTasks() throws InterruptedException {
+        try (final ExecutorService executor = new WorkStealingExecutorService(2)) {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.HOURS);
+            assertTrue(executor.isTerminated());
+        }
+    }
+
+    @Test
+    public void testGracefulTerminationRunsAllTasks() throws InterruptedException {
+        final int taskCount = 10_000;
+        final AtomicInteger finished = new AtomicInteger();
+        try (final ExecutorService executor = new WorkStealingExecutorService(4)) {
+            IntStream.range(0, taskCount).forEach(n -> executor.execute(finished::incrementAndGet));
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(1, TimeUnit.HOURS));
+            assertTrue(executor.isTerminated());
+        }
+        assertEquals(taskCount, finished.get());
+    }
+
+    @Test
+    public void testImmediateTermination() throws InterruptedException {
+        final int workerCount = 2;
+        final int taskCount = 10;
+        try (final ExecutorService executor = new WorkStealingExecutorService(workerCount)) {
+            IntStream.range(0, taskCount)
+                    .forEach(n -> executor.execute(() -> {
+                        try {
+                            TimeUnit.SECONDS.sleep(10);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }));
+            TimeUnit.MILLISECONDS.sleep(300); // wait for first tasks to start
+            final List<Runnable> pendingTasks = executor.shutdownNow();
+            assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+            assertEquals(taskCount - workerCount, pendingTasks.size());
+        }
+    }
+
+    @Test
+    public void testRecursiveSubtasks() throws InterruptedException {
+        final int depth = 12;
+        final CountDownLatch leaves = new CountDownLatch(1 << depth);
+        try (final ExecutorService executor = new WorkStealingExecutorService(4)) {
+            executor.execute(split(executor, depth, leaves));
+            // subtasks would be rejected after shutdown
+            assertTrue(leaves.await(1, TimeUnit.MINUTES));
+        }
+    }
+
+    private static Runnable split(ExecutorService executor, int depth, CountDownLatch leaves) {
+        return () -> {
+            if (depth == 0) {
+                leaves.countDown();
+            } else {
+                executor.execute(split(executor, depth - 1, leaves));
+                executor.execute(split(executor, depth - 1, leaves));
+            }
+        };
+    }
+
+    @Test
+    public void testConcurrentSubmission() throws InterruptedException {
+        final int producerCount = 4;
+        final int tasksPerProducer = 10_000;
+        final AtomicInteger finished = new AtomicInteger();
+        try (final ExecutorService executor = new WorkStealingExecutorService(4)) {
+            final List<Thread> producers = IntStream.range(0, producerCount)
+                    .mapToObj(p -> Thread.ofPlatform().start(() -> {
+                        for (int n = 0; n < tasksPerProducer; n++) {
+                            executor.execute(finished::incrementAndGet);
+                        }
+                    }))
+                    .toList();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+        }
+        assertEquals(producerCount * tasksPerProducer, finished.get());
+    }
+
+    @Test
+    public void testSubmitWithResult() throws InterruptedException, ExecutionException {
+        try (final ExecutorService executor = new WorkStealingExecutorService(2)) {
+            final Future<Integer> future = executor.submit(() -> 42);
+            assertEquals(42, future.get());
+            assertEquals(Future.State.SUCCESS, future.state());
+        }
+    }
+
+    @Test
+    public void testCancellation() throws InterruptedException {
+        try (final ExecutorService executor = new WorkStealingExecutorService(1)) {
+            final Future<?> future = executor.submit(() -> {
+                try {
+                    TimeUnit.SECONDS.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            TimeUnit.MILLISECONDS.sleep(100);
+            future.cancel(true);
+            assertEquals(Future.State.CANCELLED, future.state());
+            assertThrows(CancellationException.class, () -> future.get());
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package sebfisch.parallel;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.OptionalLong;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class ArrayReductionsTest {
+    // shorter and longer than a chunk, with and without a partial vector
+    private static final int[] LENGTHS = { 0, 1, 7, 64, 1_000, ArrayReductions.MIN_CHUNK_LENGTH + 3, 1_000_003 };
+
+    private static final Random RANDOM = new Random(42);
+
+    @Test
+    public void testThatVectorKernelsAreUsedWhereProfitable() {
+        // the tests run with the incubator module, see the surefire configuration
+        assertEquals(VectorKernels.isProfitable(), ArrayReductions.isVectorized());
+    }
+
+    @Test
+    public void testLongReductionsAgainstStreams() {
+        for (int length : LENGTHS) {
+            final long[] values = RANDOM.longs(length).toArray();
+            final long[] others = RANDOM.longs(length).toArray();
+            assertEquals(Arrays.stream(values).sum(), ArrayReductions.sum(values));
+            assertEquals(Arrays.stream(values).min(), ArrayReductions.min(values));
+            assertEquals(Arrays.stream(values).max(), ArrayReductions.max(values));
+            assertEquals(IntStream.range(0, length).mapToLong(i -> values[i] * others[i]).sum(),
+                    ArrayReductions.dot(values, others));
+        }
+    }
+
+    @Test
+    public void testIntReductionsAgainstStreams() {
+        for (int length : LENGTHS) {
+            final int[] values = RANDOM.ints(length).toArray();
+            final int[] others = RANDOM.ints(length).toArray();
+            assertEquals(Arrays.stream(values).asLongStream().sum(), ArrayReductions.sum(values));
+            assertEquals(Arrays.stream(values).min(), ArrayReductions.min(values));
+            assertEquals(Arrays.stream(values).max(), ArrayReductions.max(values));
+            assertEquals(IntStream.range(0, length).mapToLong(i -> (long) values[i] * others[i]).sum(),
+                    ArrayReductions.dot(values, others));
+        }
+    }
+
+    @Test
+    public void testThatKernelsAgree() {
+        final int[] ints = RANDOM.ints(1_003).toArray();
+        final long[] longs = RANDOM.longs(1_003).toArray();
+        final ReductionKernels scalar = new ScalarKernels();
+        final List<ReductionKernels> candidates = VectorKernels.isProfitable()
+                ? List.of(new VectorKernels(), ArrayReductions.KERNELS)
+                : List.of(ArrayReductions.KERNELS);
+        for (ReductionKernels kernels : candidates) {
+            for (int from : new int[] { 0, 5 }) {
+                assertEquals(scalar.sum(ints, from, ints.length), kernels.sum(ints, from, ints.length));
+                assertEquals(scalar.sum(longs, from, longs.length), kernels.sum(longs, from, longs.length));
+                assertEquals(scalar.min(ints, from, 900), kernels.min(ints, from, 900));
+                assertEquals(scalar.max(longs, from, 900), kernels.max(longs, from, 900));
+                assertEquals(scalar.dot(ints, ints, from, 1_000), kernels.dot(ints, ints, from, 1_000));
+                assertEquals(scalar.dot(longs, longs, from, 1_000), kernels.dot(longs, longs, from, 1_000));
+            }
+        }
+    }
+
+    @Test
+    public void testSumsOfIntsDoNotOverflow() {
+        final int[] values = new int[ArrayReductions.MIN_CHUNK_LENGTH * 4];
+        Arrays.fill(values, Integer.MAX_VALUE);
+        assertEquals((long) Integer.MAX_VALUE * values.length, ArrayReductions.sum(values));
+        // each product overflows an int, but their sum fits in a long
+        final int[] factors = new int[values.length];
+        Arrays.fill(factors, 1 << 20);
+        assertEquals((1L << 40) * factors.length, ArrayReductions.dot(factors, factors));
+    }
+
+    @Test
+    public void testEmptyArrays() {
+        assertEquals(0, ArrayReductions.sum(new long[0]));
+        assertEquals(OptionalLong.empty(), ArrayReductions.min(new long[0]));
+        assertEquals(OptionalInt.empty(), ArrayReductions.max(new int[0]));
+        assertEquals(0, ArrayReductions.dot(new int[0], new int[0]));
+    }
+
+    @Test
+    public void testHistogram() {
+        assertArrayEquals(new long[] { 2, 1, 0, 1 },
+                ArrayReductions.histogram(new int[] { -1, 0, 9, 10, 35, 40, Integer.MIN_VALUE }, 0, 10, 4));
+        assertArrayEquals(new long[] { 1, 1 },
+                ArrayReductions.histogram(new long[] { Long.MIN_VALUE, Long.MAX_VALUE, 0 },
+                        Long.MIN_VALUE, Long.MAX_VALUE, 2));
+
+        final int[] values = RANDOM.ints(1_000_003, -100, 1_100).toArray();
+        final long[] expected = new long[10];
+        for (int value : values) {
+            if (value >= 0 && value < 1_000) {
+                expected[value / 100]++;
+            }
+        }
+        assertArrayEquals(expected, ArrayReductions.histogram(values, 0, 100, 10));
+    }
+
+    @Test
+    public void testThatInvalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ArrayReductions.dot(new long[1], new long[2]));
+        assertThrows(IllegalArgumentException.class, () -> ArrayReductions.histogram(new int[1], 0, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> ArrayReductions.histogram(new long[1], 0, 1, 0));
+    }
+}
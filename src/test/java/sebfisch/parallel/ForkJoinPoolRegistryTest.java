@@ -0,0 +1,75 @@
+package sebfisch.parallel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+public class ForkJoinPoolRegistryTest {
+    private static Set<String> threadNames() {
+        return IntStream.range(0, 10_000).parallel()
+                .mapToObj(n -> Thread.currentThread().getName())
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void testThatPipelinesRunOnlyInTheGivenPool() {
+        try (ForkJoinPool pool = ForkJoinPools.create("isolated", 4)) {
+            final Set<String> names = ForkJoinPools.invoke(pool, ForkJoinPoolRegistryTest::threadNames);
+            assertTrue(names.stream().allMatch(name -> name.startsWith("isolated-worker-")), names.toString());
+            assertEquals(4, pool.getParallelism());
+        }
+    }
+
+    @Test
+    public void testThatPoolsAreCreatedOnFirstUse() {
+        try (ForkJoinPoolRegistry registry = new ForkJoinPoolRegistry(3)) {
+            final ForkJoinPool sieve = registry.register("sieve", 2);
+            assertSame(sieve, registry.pool("sieve"));
+            assertEquals(2, sieve.getParallelism());
+            assertEquals(3, registry.pool("sums").getParallelism());
+            assertEquals(Set.of("sieve", "sums"), registry.names());
+            assertEquals(PrimeSieve.countPrimes(0, 1_000_000),
+                    registry.invoke("sieve", () -> PrimeSieve.countPrimes(0, 1_000_000)));
+        }
+    }
+
+    @Test
+    public void testThatExceptionsArePropagated() {
+        try (ForkJoinPoolRegistry registry = new ForkJoinPoolRegistry()) {
+            assertThrows(ArithmeticException.class,
+                    () -> registry.run("failing", () -> IntStream.range(0, 100).parallel()
+                            .forEach(n -> {
+                                if (n == 42) {
+                                    throw new ArithmeticException();
+                                }
+                            })));
+        }
+    }
+
+    @Test
+    public void testThatClosingShutsDownPools() {
+        final ForkJoinPoolRegistry registry = new ForkJoinPoolRegistry();
+        final ForkJoinPool pool = registry.pool("closed");
+        registry.close();
+        assertTrue(pool.isTerminated());
+        assertThrows(IllegalStateException.class, () -> registry.pool("closed"));
+    }
+
+    @Test
+    public void testThatInvalidRegistrationsAreRejected() {
+        try (ForkJoinPoolRegistry registry = new ForkJoinPoolRegistry()) {
+            registry.register("twice", 1);
+            assertThrows(IllegalStateException.class, () -> registry.register("twice", 1));
+            assertThrows(IllegalArgumentException.class, () -> registry.register("none", 0));
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ForkJoinPoolRegistry(0));
+    }
+}
@@ -0,0 +1,73 @@
+package sebfisch.parallel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+public class MillerRabinTest {
+    @Test
+    public void testAgainstSieve() {
+        final long bound = 2_000_000;
+        assertEquals(PrimeSieve.countPrimes(0, bound), LongStream.range(-10, bound).filter(MillerRabin::isPrime).count());
+        for (long prime : PrimeSieve.primes(0, 100_000).toArray()) {
+            assertTrue(MillerRabin.isPrime(prime), Long.toString(prime));
+        }
+    }
+
+    @Test
+    public void testPseudoprimes() {
+        // Carmichael numbers and strong pseudoprimes to the first few prime bases
+        final long[] composites = { 561, 1_105, 2_047, 1_373_653, 25_326_001, 3_215_031_751L, 2_152_302_898_747L,
+                3_474_749_660_383L, 341_550_071_728_321L, 3_825_123_056_546_413_051L,
+                4_294_967_291L * 2_147_483_647L, Long.MAX_VALUE, 67 * 67 };
+        for (long composite : composites) {
+            assertFalse(MillerRabin.isPrime(composite), Long.toString(composite));
+        }
+    }
+
+    @Test
+    public void testLargePrimes() {
+        final long[] primes = { 4_294_967_291L, 2_305_843_009_213_693_951L, Long.MAX_VALUE - 24, 61, 67, 4_493 };
+        for (long prime : primes) {
+            assertTrue(MillerRabin.isPrime(prime), Long.toString(prime));
+        }
+    }
+
+    @Test
+    public void testAgainstBigIntegerNear2To63() {
+        final Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            final long number = Long.MAX_VALUE - random.nextLong(1L << 40);
+            assertEquals(BigInteger.valueOf(number).isProbablePrime(64), MillerRabin.isPrime(number),
+                    Long.toString(number));
+        }
+    }
+
+    @Test
+    public void testMontgomeryMultiplication() {
+        final Random random = new Random(42);
+        final long modulus = Long.MAX_VALUE - 24;
+        final MillerRabin.Montgomery montgomery = new MillerRabin.Montgomery(modulus);
+        final BigInteger n = BigInteger.valueOf(modulus);
+        for (int i = 0; i < 1_000; i++) {
+            final long left = random.nextLong(modulus);
+            final long right = random.nextLong(modulus);
+            // converting the product back to normal form multiplies it by 1/R
+            final long product = montgomery.multiply(montgomery.toMontgomery(left), right);
+            assertEquals(BigInteger.valueOf(left).multiply(BigInteger.valueOf(right)).mod(n).longValueExact(), product);
+        }
+    }
+
+    @Test
+    public void testInverse() {
+        for (long odd : new long[] { 1, 3, 61, Long.MAX_VALUE, -1 }) {
+            assertEquals(1, odd * MillerRabin.inverse(odd));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package sebfisch.parallel;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+public class PrimeScannerTest {
+    @Test
+    public void testAgainstSieveAcrossSplits() {
+        final long[][] ranges = { { -5, 100 }, { 0, 3 }, { 2, 3 }, { 3, 3 },
+                { 1_000_000_000, 1_000_000_000 + 10 * PrimeScanner.SEQUENTIAL_LENGTH + 7 } };
+        for (long[] range : ranges) {
+            final long[] expected = PrimeSieve.primes(range[0], range[1]).toArray();
+            assertArrayEquals(expected, PrimeScanner.primes(range[0], range[1]));
+            assertEquals(expected.length, PrimeScanner.countPrimes(range[0], range[1]));
+        }
+    }
+
+    @Test
+    public void testNear2To63() {
+        final long from = Long.MAX_VALUE - 3 * PrimeScanner.SEQUENTIAL_LENGTH;
+        final long[] expected = LongStream.range(from, Long.MAX_VALUE)
+                .filter(n -> BigInteger.valueOf(n).isProbablePrime(64))
+                .toArray();
+        assertArrayEquals(expected, PrimeScanner.primes(from, Long.MAX_VALUE));
+        assertEquals(expected.length, PrimeScanner.countPrimes(from, Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE - 24, expected[expected.length - 1]);
+    }
+
+    @Test
+    public void testScanInDedicatedPool() {
+        final long from = 1L << 62;
+        try (ForkJoinPool pool = ForkJoinPools.create("scan", 2)) {
+            assertArrayEquals(PrimeScanner.primes(from, from + 50_000),
+                    ForkJoinPools.invoke(pool, () -> PrimeScanner.primes(from, from + 50_000)));
+        }
+    }
+
+    @Test
+    public void testNextPrime() {
+        assertEquals(2, PrimeScanner.nextPrime(-7));
+        assertEquals(3, PrimeScanner.nextPrime(3));
+        assertEquals(97, PrimeScanner.nextPrime(90));
+        assertEquals(Long.MAX_VALUE - 24, PrimeScanner.nextPrime(Long.MAX_VALUE - 60));
+        assertThrows(ArithmeticException.class, () -> PrimeScanner.nextPrime(Long.MAX_VALUE - 23));
+    }
+}
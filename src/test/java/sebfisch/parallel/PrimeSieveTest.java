@@ -0,0 +1,75 @@
+package sebfisch.parallel;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+public class PrimeSieveTest {
+    private static boolean isPrime(long number) {
+        if (number < 2) {
+            return false;
+        }
+        for (long divisor = 2; divisor * divisor <= number; divisor++) {
+            if (number % divisor == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void testSmallRanges() {
+        assertArrayEquals(new long[] { 2, 3, 5, 7, 11, 13, 17, 19, 23, 29 }, PrimeSieve.primes(0, 30).toArray());
+        assertArrayEquals(new long[] { 11, 13 }, PrimeSieve.primes(11, 17).toArray());
+        assertEquals(0, PrimeSieve.countPrimes(0, 2));
+        assertEquals(1, PrimeSieve.countPrimes(2, 3));
+        assertEquals(0, PrimeSieve.countPrimes(24, 29));
+        assertEquals(0, PrimeSieve.countPrimes(30, 10));
+        assertEquals(4, PrimeSieve.countPrimes(-10, 10));
+    }
+
+    @Test
+    public void testAgainstTrialDivisionAcrossSegments() {
+        final long segmentSpan = 2L * PrimeSieve.SEGMENT_BITS;
+        final long[][] ranges = { { 0, 10_000 }, { segmentSpan - 1_000, segmentSpan + 1_000 },
+                { 3 * segmentSpan - 7, 3 * segmentSpan + 64 }, { 1_000_000_000, 1_000_010_000 } };
+        for (long[] range : ranges) {
+            final long[] expected = LongStream.range(range[0], range[1]).filter(PrimeSieveTest::isPrime).toArray();
+            assertArrayEquals(expected, PrimeSieve.primes(range[0], range[1]).toArray());
+            assertEquals(expected.length, PrimeSieve.countPrimes(range[0], range[1]));
+        }
+    }
+
+    @Test
+    public void testKnownPrimeCounts() {
+        assertEquals(78_498, PrimeSieve.countPrimes(0, 1_000_000));
+        assertEquals(664_579, PrimeSieve.countPrimes(0, 10_000_000));
+        assertEquals(50_847_534, PrimeSieve.countPrimes(0, 1_000_000_000));
+        assertEquals(5_761_455 - 664_579, PrimeSieve.countPrimes(10_000_000, 100_000_000));
+    }
+
+    @Test
+    public void testThatParallelEnumerationKeepsOrder() {
+        final long from = 5_000_000;
+        final long to = 30_000_000;
+        assertArrayEquals(PrimeSieve.primes(from, to).toArray(), PrimeSieve.primes(from, to).parallel().toArray());
+        assertEquals(PrimeSieve.countPrimes(from, to), PrimeSieve.primes(from, to).parallel().count());
+    }
+
+    @Test
+    public void testThatTooLargeBoundsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PrimeSieve.countPrimes(0, PrimeSieve.MAX_BOUND + 1));
+    }
+
+    @Test
+    public void testIntegerSquareRoot() {
+        assertEquals(0, PrimeSieve.isqrt(0));
+        assertEquals(3, PrimeSieve.isqrt(15));
+        assertEquals(4, PrimeSieve.isqrt(16));
+        assertEquals(3_037_000_499L, PrimeSieve.isqrt(Long.MAX_VALUE));
+    }
+}